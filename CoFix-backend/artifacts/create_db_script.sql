@@ -90,7 +90,7 @@ ALTER TABLE public.posts OWNER TO postgres;
 CREATE SEQUENCE public.posts_post_id_seq
     AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
     CACHE 1;
@@ -131,7 +131,7 @@ ALTER TABLE public.reviews OWNER TO postgres;
 CREATE SEQUENCE public.reviews_review_id_seq
     AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
     CACHE 1;
@@ -224,6 +224,69 @@ ALTER TABLE ONLY public.users
     ADD CONSTRAINT users_pkey PRIMARY KEY (email);
 
 
+--
+-- Name: posts_create_date_post_id_idx; Type: INDEX; Schema: public; Owner: postgres
+-- Keyset pagination for /api/issues/page walks this index newest first
+--
+
+CREATE INDEX posts_create_date_post_id_idx ON public.posts USING btree (create_date DESC, post_id DESC);
+
+
+--
+-- Name: email_outbox; Type: TABLE; Schema: public; Owner: postgres
+-- Notification emails waiting for the background dispatcher
+--
+
+CREATE TABLE public.email_outbox (
+    message_id bigserial PRIMARY KEY,
+    to_email text NOT NULL,
+    subject text,
+    body text,
+    status text NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp without time zone NOT NULL,
+    last_error text,
+    create_date timestamp without time zone,
+    sent_date timestamp without time zone
+);
+
+
+ALTER TABLE public.email_outbox OWNER TO postgres;
+
+CREATE INDEX email_outbox_due_idx ON public.email_outbox USING btree (next_attempt_at) WHERE status = 'PENDING';
+
+
+--
+-- Name: community_issues; Type: TABLE; Schema: public; Owner: postgres
+-- Issues reported through /api/issues/report; photo_url holds an /api/images/{hash} reference
+--
+
+CREATE TABLE public.community_issues (
+    id bigserial PRIMARY KEY,
+    title text,
+    description text,
+    category text,
+    urgency text,
+    status text,
+    latitude double precision,
+    longitude double precision,
+    photo_url text,
+    user_email text,
+    created_at timestamp without time zone
+);
+
+
+ALTER TABLE public.community_issues OWNER TO postgres;
+
+
+--
+-- Name: posts_post_id_seq, reviews_review_id_seq; Type: SEQUENCE; Schema: public; Owner: postgres
+-- Hibernate hands out ids 50 per sequence call (allocationSize = 50); run these on databases created before that
+--
+
+ALTER SEQUENCE public.posts_post_id_seq INCREMENT BY 50;
+ALTER SEQUENCE public.reviews_review_id_seq INCREMENT BY 50;
+
 -- Completed on 2024-07-04 21:46:51
 
 --
@@ -0,0 +1,49 @@
+package com.cofix.cofixBackend.benchmarks;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Services.CofixService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering one issue notification email.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailBodyBenchmark {
+
+    private CofixService cofixService;
+    private MyPost post;
+
+    @Setup
+    public void setUp() {
+        cofixService = new CofixService();
+        post = new MyPost("reporter@user.com", 42L, BenefitTypes.COMMUNITY_ISSUE, null,
+                "Streetlight on the corner of 5th & Main has been out for a week <urgent>",
+                "/api/images/" + "a".repeat(64), "Broken streetlight", "Reported via the map",
+                new Location(17.4556, 78.6665), "Neighbours are worried about safety", LocalDateTime.now(), new ArrayList<>());
+    }
+
+    @Benchmark
+    public String generateEmailBody() {
+        return cofixService.generateEmailBody(post);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cofix.cofixBackend.benchmarks;
+
+import com.cofix.cofixBackend.Configurations.DynamicPhysicalNamingStrategy;
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DynamicPhysicalNamingStrategy} for a plain camel-case column and for a {@code ${...}} placeholder,
+ * which resolves the property and compiles a catalog pattern on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NamingStrategyBenchmark {
+
+    private final Identifier column = Identifier.toIdentifier("activityDescription");
+    private final Identifier schemaPlaceholder = Identifier.toIdentifier("${cofix.schema.name}");
+
+    private DynamicPhysicalNamingStrategy strategy;
+    private JdbcEnvironment jdbcEnvironment;
+
+    @Setup
+    public void setUp() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("benchmark", Map.of("cofix.schema.name", "public")));
+        context.refresh();
+        strategy = new DynamicPhysicalNamingStrategy();
+        strategy.setApplicationContext(context);
+
+        // Only the current catalog is consulted
+        Identifier catalog = Identifier.toIdentifier("cofixdb");
+        jdbcEnvironment = (JdbcEnvironment) Proxy.newProxyInstance(JdbcEnvironment.class.getClassLoader(),
+                new Class<?>[]{JdbcEnvironment.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getCurrentCatalog")) {
+                        return catalog;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public Identifier camelCaseColumn() {
+        return strategy.toPhysicalColumnName(column, jdbcEnvironment);
+    }
+
+    @Benchmark
+    public Identifier schemaPlaceholder() {
+        return strategy.toPhysicalSchemaName(schemaPlaceholder, jdbcEnvironment);
+    }
+}
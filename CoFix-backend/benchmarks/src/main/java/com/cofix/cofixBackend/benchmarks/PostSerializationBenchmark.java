@@ -0,0 +1,95 @@
+package com.cofix.cofixBackend.benchmarks;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a post list as the list endpoints return it, with photos stored inline as base64
+ * data URLs (the old format), as blob references, or absent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSerializationBenchmark {
+
+    @Param({"50", "500"})
+    int posts;
+
+    @Param({"none", "inline", "reference"})
+    String images;
+
+    // Same settings Spring Boot applies to its auto-configured mapper
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<MyPost> myPosts;
+    private List<PostSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        byte[] photo = new byte[48 * 1024];
+        random.nextBytes(photo);
+        String inline = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(photo);
+
+        myPosts = new ArrayList<>(posts);
+        summaries = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            String reference = String.format("/api/images/%064x", i);
+            String image = switch (images) {
+                case "inline" -> inline;
+                case "reference" -> reference;
+                default -> null;
+            };
+            List<String> extraImages = new ArrayList<>();
+            if (image != null) {
+                extraImages.add(image);
+            }
+            MyPost post = new MyPost("user" + (i % 20) + "@user.com", (long) i,
+                    i % 2 == 0 ? BenefitTypes.COMMUNITY_ISSUE : BenefitTypes.GOVERNMENT_SCHEME,
+                    "Scheme " + i, "Description of post " + i, image, "Issue " + i, "Activity " + i,
+                    new Location(17.4 + random.nextDouble(), 78.6 + random.nextDouble()), "Comment " + i,
+                    LocalDateTime.now().minusHours(i), extraImages);
+            myPosts.add(post);
+            summaries.add(PostSummary.of(post));
+        }
+    }
+
+    @Benchmark
+    public byte[] myPosts() throws Exception {
+        return mapper.writeValueAsBytes(myPosts);
+    }
+
+    @Benchmark
+    public byte[] postSummaries() throws Exception {
+        return mapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,96 @@
+package com.cofix.cofixBackend.benchmarks;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benefit type and location defaulting that /issues/all applies to every post. It used to be a loop over
+ * the loaded entities in the controller ({@link #entityLoop()}); it now happens while building each
+ * {@link PostSummary} ({@link #summaries()}). Half of the posts have no location.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSummaryBenchmark {
+
+    @Param({"1000"})
+    int posts;
+
+    private List<MyPost> myPosts;
+
+    @Setup
+    public void setUp() {
+        myPosts = newPosts(posts);
+    }
+
+    /**
+     * The entity loop fills in missing values in place, so it gets fresh posts for every invocation.
+     */
+    @State(Scope.Thread)
+    public static class FreshPosts {
+        List<MyPost> myPosts;
+
+        @Setup(Level.Invocation)
+        public void setUp(PostSummaryBenchmark benchmark) {
+            myPosts = newPosts(benchmark.posts);
+        }
+    }
+
+    @Benchmark
+    public List<MyPost> entityLoop(FreshPosts fresh) {
+        List<MyPost> myPosts = fresh.myPosts;
+        for (MyPost post : myPosts) {
+            if (post.getBenefitType() == null) {
+                post.setBenefitType(BenefitTypes.COMMUNITY_ISSUE);
+            }
+            if (post.getLatitude() == null || post.getLongitude() == null) {
+                post.setLatitude(Location.DEFAULT_LAT);
+                post.setLongitude(Location.DEFAULT_LNG);
+            }
+            post.setLocation(new Location(post.getLatitude(), post.getLongitude()));
+        }
+        return myPosts;
+    }
+
+    @Benchmark
+    public List<PostSummary> summaries() {
+        List<PostSummary> summaries = new ArrayList<>(myPosts.size());
+        for (MyPost post : myPosts) {
+            summaries.add(PostSummary.of(post));
+        }
+        return summaries;
+    }
+
+    private static List<MyPost> newPosts(int count) {
+        List<MyPost> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = i % 2 == 0 ? new Location(17.4, 78.6) : null;
+            posts.add(new MyPost("user@user.com", (long) i, i % 3 == 0 ? null : BenefitTypes.COMMUNITY_ISSUE,
+                    null, "Description " + i, null, "Issue " + i, null, location, null, LocalDateTime.now(),
+                    new ArrayList<>()));
+        }
+        return posts;
+    }
+}
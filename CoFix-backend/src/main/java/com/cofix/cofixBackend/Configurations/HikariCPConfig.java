@@ -10,6 +10,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.util.Base64;
 
@@ -21,6 +24,23 @@ public class HikariCPConfig {
     @Autowired
     Environment env;
 
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    // With virtual threads the pool, not the request thread count, bounds database concurrency
+    @Value("${cofix.datasource.maximum-pool-size:25}")
+    int maximumPoolSize;
+    // Defaults to maximumPoolSize, i.e. a fixed-size pool
+    @Value("${cofix.datasource.minimum-idle:-1}")
+    int minimumIdle;
+    // Only applies when minimumIdle is below maximumPoolSize; Hikari warns about it on a fixed-size pool
+    @Value("${cofix.datasource.idle-timeout-ms:30000}")
+    long idleTimeoutMs;
+    @Value("${cofix.datasource.connection-timeout-ms:30000}")
+    long connectionTimeoutMs;
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
 
     @Bean
     public HikariDataSource postgresdbDataSource() {
@@ -32,19 +52,27 @@ public class HikariCPConfig {
 
         //log.info("user:" + pgUser+"| pw:"+pgPassword +"|");
         HikariDataSource dataSource = new HikariDataSource();
+        int minimumIdleConnections = minimumIdle >= 0 ? Math.min(minimumIdle, maximumPoolSize) : maximumPoolSize;
         try {
             dataSource.setJdbcUrl(env.getProperty("spring.datasource.url"));
             dataSource.setAutoCommit(false);
-            dataSource.setConnectionTimeout(30000);
-            dataSource.setIdleTimeout(30000);
+            dataSource.setConnectionTimeout(connectionTimeoutMs);
             dataSource.setPoolName(env.getProperty("spring.postgres.datasource.connection-pool-name"));
-            dataSource.setMaximumPoolSize(25);
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setMinimumIdle(minimumIdleConnections);
+            if (minimumIdleConnections < maximumPoolSize) {
+                dataSource.setIdleTimeout(idleTimeoutMs);
+            }
             dataSource.setUsername(pgUser);
             dataSource.setPassword(pgPassword);
+            // hikaricp.connections.* (active, idle, pending, acquire/usage timers, timeouts) tagged with the pool name
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
         }
         catch (Exception e) {
             log.error("Failed to Init Postgres Database pool : ",e);
         }
+        log.info("Postgres pool: {} connections ({} kept idle), {} ms connection timeout, virtual threads {}",
+                maximumPoolSize, minimumIdleConnections, connectionTimeoutMs, virtualThreads ? "on" : "off");
         return dataSource;
     }
 }
@@ -0,0 +1,93 @@
+package com.cofix.cofixBackend.Configurations;
+
+import com.cofix.cofixBackend.Services.PasswordHasher;
+import com.cofix.cofixBackend.Services.PostFeedService;
+import com.cofix.cofixBackend.Services.UserCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Every request is already timed as {@code http.server.requests}, tagged with its uri template. Percentile
+ * histograms cost a few dozen extra series per endpoint, so they are only turned on for the hot endpoints
+ * listed in {@code cofix.metrics.histogram-uris}.
+ * <p>
+ * Repository calls are timed by Spring Boot as {@code spring.data.repository.invocations} and the Hikari pool
+ * reports {@code hikaricp.connections.*}; the in-memory user cache, the password hashing pool and the live post
+ * feed are bound here from their stats.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Value("${cofix.metrics.histogram-uris:}")
+    Set<String> histogramUris;
+
+    @Bean
+    public MeterFilter hotEndpointHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if ("http.server.requests".equals(id.getName()) && histogramUris.contains(id.getTag("uri"))) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder userCacheMetrics(UserCache userCache) {
+        return registry -> {
+            FunctionCounter.builder("cofix.users.cache.requests", userCache, cache -> stat(cache::getStats, "hits"))
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cofix.users.cache.requests", userCache, cache -> stat(cache::getStats, "misses"))
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cofix.users.cache.evictions", userCache, cache -> stat(cache::getStats, "evictions"))
+                    .register(registry);
+            Gauge.builder("cofix.users.cache.size", userCache, cache -> stat(cache::getStats, "size"))
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHasherMetrics(PasswordHasher passwordHasher) {
+        return registry -> {
+            FunctionCounter.builder("cofix.auth.bcrypt.rejected", passwordHasher, hasher -> stat(hasher::getStats, "rejected"))
+                    .description("Password checks shed because the hashing pool was full")
+                    .register(registry);
+            Gauge.builder("cofix.auth.bcrypt.queued", passwordHasher, hasher -> stat(hasher::getStats, "queued"))
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder postFeedMetrics(PostFeedService postFeedService) {
+        return registry -> {
+            Gauge.builder("cofix.feed.subscribers", postFeedService, feed -> stat(feed::getStats, "subscribers"))
+                    .register(registry);
+            FunctionCounter.builder("cofix.feed.overflows", postFeedService, feed -> stat(feed::getStats, "overflows"))
+                    .description("Subscriber buffers that filled up and were replaced by a resync event")
+                    .register(registry);
+        };
+    }
+
+    private static double stat(Supplier<Map<String, Object>> stats, String name) {
+        Object value = stats.get().get(name);
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
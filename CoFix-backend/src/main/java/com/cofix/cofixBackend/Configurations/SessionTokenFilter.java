@@ -0,0 +1,113 @@
+package com.cofix.cofixBackend.Configurations;
+
+import com.cofix.cofixBackend.Models.SessionToken;
+import com.cofix.cofixBackend.Services.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Verifies the session token on every {@code /api/**} request and exposes its claims as the
+ * {@link #SESSION_ATTRIBUTE} request attribute.
+ * <p>
+ * The token is read from an {@code Authorization: Bearer} header or the session cookie. A token that is present
+ * but invalid is answered with 401, except on public paths (login, signup, logout, auth status and image
+ * downloads). Every {@code /api/admin/**} request needs a valid session, and is answered with 403 unless the
+ * session belongs to {@code admin-email}. Other requests are let through without a token unless
+ * {@code cofix.auth.token.enforce} is on; controllers that act for a user check that a session which is present
+ * belongs to that user.
+ */
+@Component
+@Slf4j
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_ATTRIBUTE = "cofixSession";
+    public static final String SESSION_COOKIE = "COFIX_SESSION";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final Set<String> PUBLIC_PATHS = Set.of("/api/login", "/api/signup", "/api/logout", "/api/auth/status");
+    private static final String PUBLIC_IMAGES_PREFIX = "/api/images/";
+    private static final String ADMIN_PREFIX = "/api/admin/";
+
+    @Autowired
+    SessionTokenService sessionTokenService;
+
+    @Value("${cofix.auth.token.enforce:false}")
+    boolean enforce;
+    @Value("${admin-email}")
+    String adminEmail;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean isPublic = isPublic(path, request.getMethod());
+        SessionToken session = null;
+        String token = tokenOf(request);
+        if (token != null) {
+            session = sessionTokenService.verify(token);
+            if (session != null) {
+                request.setAttribute(SESSION_ATTRIBUTE, session);
+            } else if (!isPublic) {
+                // A stale cookie must not lock the user out of logging in again, so public paths ignore it
+                reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired session");
+                return;
+            }
+        }
+        boolean isAdmin = path.startsWith(ADMIN_PREFIX);
+        if (session == null && !isPublic && (enforce || isAdmin)) {
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        if (isAdmin && !session.getEmail().equalsIgnoreCase(adminEmail)) {
+            log.warn("Refused {} {} for non-admin {}", request.getMethod(), path, session.getEmail());
+            reject(response, HttpServletResponse.SC_FORBIDDEN, "Admin access required");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static boolean isPublic(String path, String method) {
+        return PUBLIC_PATHS.contains(path) || ("GET".equals(method) && path.startsWith(PUBLIC_IMAGES_PREFIX));
+    }
+
+    private static String tokenOf(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (SESSION_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,152 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Configurations.SessionTokenFilter;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostImportResult;
+import com.cofix.cofixBackend.Models.SessionToken;
+import com.cofix.cofixBackend.Services.DuplicateDetector;
+import com.cofix.cofixBackend.Services.EmailDispatcher;
+import com.cofix.cofixBackend.Services.ImageHashIndex;
+import com.cofix.cofixBackend.Services.ImageMigrationJob;
+import com.cofix.cofixBackend.Services.NearbyIndex;
+import com.cofix.cofixBackend.Services.PasswordHasher;
+import com.cofix.cofixBackend.Services.PostFeedService;
+import com.cofix.cofixBackend.Services.PostImportService;
+import com.cofix.cofixBackend.Services.PostSearchIndex;
+import com.cofix.cofixBackend.Services.UserCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Operational stats and maintenance jobs. {@link SessionTokenFilter} only lets the admin's session through to these
+ * endpoints; the jobs take that session as a required attribute, so they are never run anonymously even if the
+ * filter is mapped differently, and log who started them.
+ */
+@RestController
+@Slf4j
+@RequestMapping("/api/admin")
+public class CofixAdminController {
+
+    @Autowired
+    EmailDispatcher emailDispatcher;
+
+    @Autowired
+    ImageMigrationJob imageMigrationJob;
+
+    @Autowired
+    UserCache userCache;
+
+    @Autowired
+    PasswordHasher passwordHasher;
+
+    @Autowired
+    PostImportService postImportService;
+
+    @Autowired
+    PostFeedService postFeedService;
+
+    @Autowired
+    PostSearchIndex postSearchIndex;
+
+    @Autowired
+    DuplicateDetector duplicateDetector;
+
+    @Autowired
+    NearbyIndex nearbyIndex;
+
+    @Autowired
+    ImageHashIndex imageHashIndex;
+
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(emailDispatcher.getStats());
+    }
+
+    @PostMapping("/images/migrate")
+    public ResponseEntity<Map<String, Object>> migrateImages(@RequestAttribute(SessionTokenFilter.SESSION_ATTRIBUTE) SessionToken session) {
+        if (imageMigrationJob.start()) {
+            log.info("Started inline image migration for {}", session.getEmail());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(imageMigrationJob.getStats());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(imageMigrationJob.getStats());
+    }
+
+    @GetMapping("/images/migrate")
+    public ResponseEntity<Map<String, Object>> getImageMigrationStats() {
+        return ResponseEntity.ok(imageMigrationJob.getStats());
+    }
+
+    @GetMapping("/images/dedup")
+    public ResponseEntity<Map<String, Object>> getImageDedupStats() {
+        return ResponseEntity.ok(imageHashIndex.getStats());
+    }
+
+    @GetMapping("/users/cache")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userCache.getStats());
+    }
+
+    @GetMapping("/auth/hasher")
+    public ResponseEntity<Map<String, Object>> getPasswordHasherStats() {
+        return ResponseEntity.ok(passwordHasher.getStats());
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<Map<String, Object>> getFeedStats() {
+        return ResponseEntity.ok(postFeedService.getStats());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(postSearchIndex.getStats());
+    }
+
+    /**
+     * Rebuilds the search index from the database, which also reclaims the slots of deleted posts.
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex(@RequestAttribute(SessionTokenFilter.SESSION_ATTRIBUTE) SessionToken session) {
+        log.info("Rebuilding the search index for {}", session.getEmail());
+        postSearchIndex.rebuild();
+        return ResponseEntity.ok(postSearchIndex.getStats());
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<Map<String, Object>> getDuplicateDetectorStats() {
+        return ResponseEntity.ok(duplicateDetector.getStats());
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<Map<String, Object>> getNearbyIndexStats() {
+        return ResponseEntity.ok(nearbyIndex.getStats());
+    }
+
+    /**
+     * Streams posts in from a CSV or NDJSON request body; see {@link PostImportService}. benefitType applies to
+     * rows that don't carry their own.
+     */
+    @PostMapping(value = "/import/posts", consumes = {PostImportService.CSV, PostImportService.NDJSON})
+    public ResponseEntity<PostImportResult> importPosts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        @RequestParam(defaultValue = "COMMUNITY_ISSUE") BenefitTypes benefitType,
+                                                        InputStream body,
+                                                        @RequestAttribute(SessionTokenFilter.SESSION_ATTRIBUTE) SessionToken session) throws IOException {
+        String format = contentType.getType() + "/" + contentType.getSubtype();
+        log.info("Importing {} posts as {} for {}", format, benefitType, session.getEmail());
+        return ResponseEntity.ok(postImportService.importPosts(body, format, benefitType));
+    }
+}
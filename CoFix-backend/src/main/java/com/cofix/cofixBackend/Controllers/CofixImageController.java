@@ -0,0 +1,139 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.ImageRendition;
+import com.cofix.cofixBackend.Services.BlobStore;
+import com.cofix.cofixBackend.Services.ImageRenditionService;
+import com.cofix.cofixBackend.Services.PostImageService;
+import com.cofix.cofixBackend.Services.UploadRejectedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@Slf4j
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/images")
+public class CofixImageController {
+
+    // Tomcat request attributes for handing a file to the connector's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    // The original stands in for a rendition only until the rendition exists, so caches must come back for it
+    private static final CacheControl FALLBACK = CacheControl.noCache().cachePublic();
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Autowired
+    ImageRenditionService imageRenditionService;
+
+    @Autowired
+    PostImageService postImageService;
+
+    /**
+     * Stores an image sent as the raw request body and returns its reference, which can then be passed as the
+     * photoUrl of an issue report. The body goes from the socket to the blob store through a channel, hashed on the
+     * way, without being buffered as a multipart part first. A declared Content-Length over the limit is refused with
+     * 413 before anything is read; a chunked body is cut off with 413 once it passes the limit, and one that is not a
+     * supported image is refused with 415 from its first bytes.
+     */
+    @PostMapping(consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Map<String, String>> uploadImage(HttpServletRequest request) throws IOException {
+        long length = request.getContentLengthLong();
+        try {
+            if (length > postImageService.getMaxUploadBytes()) {
+                throw UploadRejectedException.tooLarge(postImageService.getMaxUploadBytes());
+            }
+            String reference;
+            try (InputStream in = request.getInputStream()) {
+                reference = postImageService.storeUpload(in);
+            }
+            log.info("Stored uploaded image {} ({} bytes declared)", reference, length);
+            return ResponseEntity.created(URI.create(reference)).body(Collections.singletonMap("url", reference));
+        } catch (UploadRejectedException e) {
+            log.info("Rejected image upload: {}", e.getMessage());
+            HttpStatus status = e.getReason() == UploadRejectedException.Reason.TOO_LARGE ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+            return ResponseEntity.status(status).body(Collections.singletonMap("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams a stored image, or one of its renditions when {@code size} is "thumb" or "medium". A rendition that
+     * is not generated yet falls back to the original and is queued for generation.
+     * Blobs and renditions never change, so the hash is a strong ETag and responses are cacheable forever. A fallback
+     * gets its own ETag and must be revalidated, so clients switch to the rendition as soon as it is generated.
+     * Whole-file responses are handed to Tomcat's sendfile so the bytes go from disk to socket without being copied
+     * through the JVM; Range requests are answered by Spring as partial content.
+     */
+    @GetMapping("/{hash}")
+    public ResponseEntity<Resource> getImage(@PathVariable String hash, @RequestParam(required = false) String size, WebRequest webRequest,
+                                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Path> blob = blobStore.find(hash);
+        if (blob.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Path path = blob.get();
+        String etag = "\"" + hash + "\"";
+        CacheControl cacheControl = IMMUTABLE;
+        ImageRendition rendition = size == null ? null : ImageRendition.fromSuffix(size);
+        if (rendition != null) {
+            Optional<Path> renditionPath = blobStore.findRendition(hash, rendition);
+            if (renditionPath.isPresent()) {
+                path = renditionPath.get();
+                etag = "\"" + hash + "-" + rendition.getSuffix() + "\"";
+            } else {
+                etag = "\"" + hash + "-" + rendition.getSuffix() + "-original\"";
+                cacheControl = FALLBACK;
+                imageRenditionService.schedule(hash);
+            }
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        String contentType = BlobStore.probeContentType(path);
+
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            long length = Files.size(path);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(path));
+    }
+}
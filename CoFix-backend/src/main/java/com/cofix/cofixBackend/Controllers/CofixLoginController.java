@@ -1,26 +1,65 @@
 package com.cofix.cofixBackend.Controllers;
 
+import com.cofix.cofixBackend.Configurations.SessionTokenFilter;
 import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CellCount;
+import com.cofix.cofixBackend.Models.DailyCount;
+import com.cofix.cofixBackend.Models.DuplicateMatch;
+import com.cofix.cofixBackend.Models.FlaggedPost;
+import com.cofix.cofixBackend.Models.ImageReferences;
 import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostPage;
+import com.cofix.cofixBackend.Models.PostSummary;
 import com.cofix.cofixBackend.Models.MyReview;
 import com.cofix.cofixBackend.Models.MyUser;
+import com.cofix.cofixBackend.Models.SessionToken;
 import com.cofix.cofixBackend.Models.CommunityIssue;
 import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MarkerCluster;
+import com.cofix.cofixBackend.Models.NearbyIssue;
 import com.cofix.cofixBackend.Services.AuthService;
 import com.cofix.cofixBackend.Services.CofixService;
+import com.cofix.cofixBackend.Services.DuplicateDetector;
 import com.cofix.cofixBackend.Services.EmailSenderService;
+import com.cofix.cofixBackend.Services.NearbyIndex;
+import com.cofix.cofixBackend.Services.PasswordHasherBusyException;
+import com.cofix.cofixBackend.Services.PostClusterIndex;
+import com.cofix.cofixBackend.Services.PostExportService;
+import com.cofix.cofixBackend.Services.PostFeedService;
+import com.cofix.cofixBackend.Services.PostImageService;
+import com.cofix.cofixBackend.Services.PostSearchIndex;
+import com.cofix.cofixBackend.Services.PostSpatialIndex;
+import com.cofix.cofixBackend.Services.PostVersions;
+import com.cofix.cofixBackend.Services.SessionTokenService;
+import com.cofix.cofixBackend.Services.StatsRollups;
+import com.cofix.cofixBackend.Services.UploadRejectedException;
+import com.cofix.cofixBackend.Services.UserCache;
 import jakarta.mail.MessagingException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @Slf4j
@@ -34,33 +73,106 @@ public class CofixLoginController {
     @Autowired
     CofixService cofixService;
 
+    @Autowired
+    PostSpatialIndex postSpatialIndex;
+
+    @Autowired
+    PostClusterIndex postClusterIndex;
+
+    @Autowired
+    StatsRollups statsRollups;
+
+    @Autowired
+    DuplicateDetector duplicateDetector;
+
+    @Autowired
+    NearbyIndex nearbyIndex;
+
+    @Autowired
+    PostSearchIndex postSearchIndex;
+
+    // The list ETags come from in-memory counters and assume a single instance; see PostVersions
+    @Autowired
+    PostVersions postVersions;
+
+    @Autowired
+    PostImageService postImageService;
+
+    @Autowired
+    PostExportService postExportService;
+
+    @Autowired
+    PostFeedService postFeedService;
+
+    @Autowired
+    UserCache userCache;
+
+    @Autowired
+    SessionTokenService sessionTokenService;
+
     @Value("${admin-email}")
     String adminEmail;
 
+    @Value("${cofix.auth.retry-after-seconds:1}")
+    int retryAfterSeconds;
+
+    @Value("${cofix.auth.token.cookie-secure:false}")
+    boolean secureCookie;
+
     public CofixLoginController(){
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestParam String email, @RequestParam String password) {
-        log.info("Login attempt for email: " + email);
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(@RequestParam String email, @RequestParam String password) {
+        log.info("Login attempt for email: {}", email);
         
         // Add input validation
         if (email == null || password == null || 
             email.trim().isEmpty() || password.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Email and password are required"));
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Collections.singletonMap("message", "Email and password are required")));
         }
 
-        if (authService.loginUser(email, password)) {
-            log.info("User authenticated successfully: " + email);
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Login successful");
-            response.put("email", email);
-            return ResponseEntity.ok(response);
-        } else {
-            log.info("Authentication failed for: " + email);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Collections.singletonMap("message", "Invalid email or password"));
+        CompletableFuture<Boolean> authenticated;
+        try {
+            authenticated = authService.loginUser(email, password);
+        } catch (PasswordHasherBusyException e) {
+            log.warn("Login rejected, password hashing pool is saturated: {}", email);
+            return CompletableFuture.completedFuture(serviceBusy());
         }
+        return authenticated.thenApply(success -> {
+            if (success) {
+                log.info("User authenticated successfully: {}", email);
+                String token = sessionTokenService.issue(email);
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "Login successful");
+                response.put("email", email);
+                response.put("token", token);
+                return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, sessionCookie(token, sessionTokenService.getTtlSeconds()).toString())
+                    .body(response);
+            } else {
+                log.info("Authentication failed for: {}", email);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Collections.singletonMap("message", "Invalid email or password"));
+            }
+        });
+    }
+
+    private ResponseCookie sessionCookie(String token, long maxAgeSeconds) {
+        return ResponseCookie.from(SessionTokenFilter.SESSION_COOKIE, token)
+            .httpOnly(true)
+            .secure(secureCookie)
+            .sameSite("Lax")
+            .path("/api")
+            .maxAge(maxAgeSeconds)
+            .build();
+    }
+
+    private ResponseEntity<Map<String, String>> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(Collections.singletonMap("message", "Server is busy, please try again shortly"));
     }
 
     @PostMapping("/signup")
@@ -73,15 +185,20 @@ public class CofixLoginController {
             return ResponseEntity.badRequest().body(Collections.singletonMap("message", "All fields are required"));
         }
 
-        Optional<MyUser> user = cofixService.getUsersRepo().findById(email);
+        Optional<MyUser> user = userCache.find(email);
         if(user.isPresent()){
-            log.error("Cannot create user, email already exists: " + email);
+            log.error("Cannot create user, email already exists: {}", email);
             return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Email already registered"));
         } else {
             MyUser newUser = new MyUser(name, email, password);
             newUser.setCreateDate(LocalDateTime.now());
-            authService.registerUser(newUser);
-            log.info("New User added: " + email);
+            try {
+                authService.registerUser(newUser);
+            } catch (PasswordHasherBusyException e) {
+                log.warn("Signup rejected, password hashing pool is saturated: {}", email);
+                return serviceBusy();
+            }
+            log.info("New User added: {}", email);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Sign-up successful");
             response.put("email", email);
@@ -94,15 +211,19 @@ public class CofixLoginController {
 
     @GetMapping("/hello")
     public void sendMail() throws MessagingException {
-        cofixService.sendNotificationEmail(new MyPost("test@user.com",null,BenefitTypes.GOVERNMENT_SCHEME,"Rythu Bandhu","Rythu Bandhu description",null,null,null, null, "Rythu Bandhu Description", LocalDateTime.now()),adminEmail);
+        cofixService.sendNotificationEmail(new MyPost("test@user.com",null,BenefitTypes.GOVERNMENT_SCHEME,"Rythu Bandhu","Rythu Bandhu description",null,null,null, null, "Rythu Bandhu Description", LocalDateTime.now(), new ArrayList<>()),adminEmail);
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<MyUser> getProfileData(String email) {
-        log.info("Profile API: Sending profile information with email:" + email);
-        Optional<MyUser> user = cofixService.getUsersRepo().findById(email);
+    public ResponseEntity<MyUser> getProfileData(String email,
+                                                 @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
+        if (session != null) {
+            email = session.getEmail();
+        }
+        log.info("Profile API: Sending profile information with email: {}", email);
+        Optional<MyUser> user = userCache.find(email);
         if(user.isPresent()){
-            log.info("User found :" + user.get());
+            log.debug("User found: {}", user.get());
             return ResponseEntity.ok(user.get());
         } else{
             log.info("User not found");
@@ -126,14 +247,18 @@ public class CofixLoginController {
 
     @PostMapping("/profile/update")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<MyUser> updateProfile(@RequestBody MyUser updatedProfile) {
-        log.info("Updating profile for user:" + updatedProfile.getEmail());
-        Optional<MyUser> profile = cofixService.getUsersRepo().findById(updatedProfile.getEmail());
+    public ResponseEntity<MyUser> updateProfile(@RequestBody MyUser updatedProfile,
+                                                @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
+        log.info("Updating profile for user: {}", updatedProfile.getEmail());
+        if (actsForSomeoneElse(session, updatedProfile.getEmail())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<MyUser> profile = userCache.find(updatedProfile.getEmail());
         if(profile.isPresent()) {
-            log.info("Old profile for user: " + profile.get());
-            log.info("Updated profile = " + updatedProfile);
+            log.debug("Old profile for user: {}", profile.get());
+            log.debug("Updated profile: {}", updatedProfile);
             updatedProfile.setPassword(profile.get().getPassword());
-            cofixService.getUsersRepo().save(updatedProfile);
+            userCache.save(updatedProfile);
             return ResponseEntity.ok(updatedProfile);
         } else {
             return ResponseEntity.notFound().build();
@@ -142,22 +267,30 @@ public class CofixLoginController {
 
     @CrossOrigin
     @GetMapping("/profile/posts")
-    public ResponseEntity<List<MyPost>> showAllPosts(String email) {
-        List<MyPost> posts = cofixService.getProfilePosts(email);
+    public ResponseEntity<List<PostSummary>> showAllPosts(String email, WebRequest webRequest) {
+        String etag = postVersions.emailTag(email);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<PostSummary> posts = cofixService.getProfilePosts(email);
         if(!posts.isEmpty()) {
-            log.info("Get All posts for user: " + posts);
-            return new ResponseEntity<>(posts, HttpStatus.OK);
+            log.info("Get All posts for user: {} ({} posts)", email, posts.size());
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(posts);
         } else {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping("/issues")
-    public ResponseEntity<List<MyPost>> getAllCommunityIssues(String benefitType) {
-        List<MyPost> allCommunityIssues = cofixService.getPostsRepo().findByBenefitType(BenefitTypes.valueOf(benefitType));
+    public ResponseEntity<List<PostSummary>> getAllCommunityIssues(String benefitType, WebRequest webRequest) {
+        String etag = postVersions.globalTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<PostSummary> allCommunityIssues = cofixService.getPostsByBenefitType(BenefitTypes.valueOf(benefitType));
         if(!allCommunityIssues.isEmpty()) {
-            log.debug("Get All Community: " + allCommunityIssues);
-            return new ResponseEntity<>(allCommunityIssues, HttpStatus.OK);
+            log.debug("Get All Community: {} posts", allCommunityIssues.size());
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(allCommunityIssues);
         } else {
             return ResponseEntity.internalServerError().build();
         }
@@ -165,24 +298,13 @@ public class CofixLoginController {
 
     //@CrossOrigin
     @GetMapping("/profile/issues/all")
-    public ResponseEntity<List<MyPost>> showAllIssues(String email) {
-        List<MyPost> allPosts = new ArrayList<>();
+    public ResponseEntity<List<PostSummary>> showAllIssues(String email) {
+        List<PostSummary> allPosts = new ArrayList<>();
         
         try {
-            // Get community issues
-            List<MyPost> issues = cofixService.getProfileIssues(email);
-            if (issues != null) {
-                issues.forEach(issue -> issue.setBenefitType(BenefitTypes.COMMUNITY_ISSUE));
-                allPosts.addAll(issues);
-            }
-            
-            // Get government schemes
-            List<MyPost> schemes = cofixService.getProfileSchemes(email);
-            if (schemes != null) {
-                schemes.forEach(scheme -> scheme.setBenefitType(BenefitTypes.GOVERNMENT_SCHEME));
-                allPosts.addAll(schemes);
-            }
-
+            // Community issues first, then government schemes
+            allPosts.addAll(cofixService.getProfileIssues(email));
+            allPosts.addAll(cofixService.getProfileSchemes(email));
             return ResponseEntity.ok(allPosts);
         } catch (Exception e) {
             log.error("Error fetching issues: ", e);
@@ -191,38 +313,47 @@ public class CofixLoginController {
     }
 
     @GetMapping("/profile/issues/community")
-    public ResponseEntity<List<MyPost>> showAllCommunityIssues(String email) {
-        List<MyPost> issues = cofixService.getProfileIssues(email);
-        if (!issues.isEmpty()) {
-            issues.forEach(issue -> issue.setBenefitType(BenefitTypes.COMMUNITY_ISSUE));
-            log.debug("Get All issues for user: " + issues);
-            return new ResponseEntity<>(issues, HttpStatus.OK);
-        } else {
-            return ResponseEntity.ok(new ArrayList<>());
-        }
+    public ResponseEntity<List<PostSummary>> showProfileCommunityIssues(String email) {
+        List<PostSummary> issues = cofixService.getProfileIssues(email);
+        log.debug("Get All issues for user: {} ({} issues)", email, issues.size());
+        return ResponseEntity.ok(issues);
     }
 
     @CrossOrigin
     @GetMapping("/profile/schemes")
-    public ResponseEntity<List<MyPost>> showAllSchemes(String email) {
-        List<MyPost> schemes = cofixService.getProfileSchemes(email);
-        if (!schemes.isEmpty()) {
-            // Ensure benefitType is set for schemes
-            schemes.forEach(scheme -> scheme.setBenefitType(BenefitTypes.GOVERNMENT_SCHEME));
-            log.debug("Get All schemes for user: " + schemes);
-            return new ResponseEntity<>(schemes, HttpStatus.OK);
-        } else {
-            return ResponseEntity.ok(new ArrayList<>());
+    public ResponseEntity<List<PostSummary>> showAllSchemes(String email, WebRequest webRequest) {
+        String etag = postVersions.emailTag(email);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
         }
+        List<PostSummary> schemes = cofixService.getProfileSchemes(email);
+        log.debug("Get All schemes for user: {} ({} schemes)", email, schemes.size());
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(schemes);
     }
 
 
+    /**
+     * Adds a community issue post. A post that looks like a recent one nearby, by its text or by its photos, is
+     * saved all the same and returned with the posts it matched as possibleDuplicates; allowDuplicate skips the check.
+     */
     @CrossOrigin
     @PostMapping("/profile/issues/add")
-    public ResponseEntity<MyPost> addIssue(@RequestBody MyPost issuePost) throws MessagingException {
-        // Save the issue to the database or in-memory store
-        // For now, just print it to the console
-        log.info("Issue to be added :" + issuePost);
+    public ResponseEntity<FlaggedPost> addIssue(@RequestBody MyPost issuePost,
+                                                @RequestParam(defaultValue = "false") boolean allowDuplicate,
+                                                @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) throws MessagingException {
+        log.debug("Issue to be added: {}", issuePost);
+        if (actsForSomeoneElse(session, issuePost.getEmail())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<DuplicateMatch> duplicates = List.of();
+        if (!allowDuplicate && issuePost.getLatitude() != null && issuePost.getLongitude() != null) {
+            // Images are stored here rather than in addIssuePost so re-uploaded photos can be matched as well
+            postImageService.externalizeImages(issuePost);
+            // Looked up before saving, so the new post doesn't match itself
+            duplicates = duplicateDetector.findDuplicates(issuePost.getLatitude(), issuePost.getLongitude(), issuePost.getIssueName(),
+                    issuePost.getDescription(), ImageReferences.referencesOf(issuePost));
+            logPossibleDuplicates(duplicates);
+        }
 
         MyPost addedPost = cofixService.addIssuePost(issuePost);
         if(addedPost!=null){
@@ -232,8 +363,8 @@ public class CofixLoginController {
         } else {
             log.error("Failed to add issue post");
         }
-        log.info("New community post added for user: "+ addedPost);
-        return new ResponseEntity<>(addedPost, HttpStatus.CREATED);
+        log.info("New community post added for user: {}", addedPost);
+        return new ResponseEntity<>(new FlaggedPost(addedPost, duplicates), HttpStatus.CREATED);
     }
 
 //    @CrossOrigin
@@ -252,34 +383,49 @@ public class CofixLoginController {
 //    }
     @CrossOrigin
     @DeleteMapping("/profile/issues/{postId}")
-    public ResponseEntity<Void> deleteIssues(@PathVariable Long postId) {
-        log.info("IssueId to be deleted :" + postId);
+    public ResponseEntity<Void> deleteIssues(@PathVariable Long postId,
+                                             @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
+        log.info("IssueId to be deleted: {}", postId);
+        // The admin may remove anyone's post
+        if (session != null && !session.getEmail().equalsIgnoreCase(adminEmail)
+                && cofixService.findPostOwner(postId).filter(owner -> actsForSomeoneElse(session, owner)).isPresent()) {
+            log.warn("Refused deleting post {} for {}", postId, session.getEmail());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         cofixService.deletePost(postId);
         return ResponseEntity.noContent().build();
     }
 
     @CrossOrigin
     @PostMapping("/profile/schemes/add")
-    public ResponseEntity<MyPost> addScheme(@RequestBody MyPost schemePost) {
+    public ResponseEntity<MyPost> addScheme(@RequestBody MyPost schemePost,
+                                            @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
 
-        log.info("Scheme to be added :" + schemePost);
+        log.debug("Scheme to be added: {}", schemePost);
+        if (actsForSomeoneElse(session, schemePost.getEmail())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         MyPost addedPost = cofixService.addSchemePost(schemePost);
         if(addedPost!=null){
             log.info("Successfully added scheme post");
         } else {
             log.error("Failed to add scheme post");
         }
-        log.info("New community post added for user: "+ addedPost);
+        log.info("New community post added for user: {}", addedPost);
         return new ResponseEntity<>(addedPost, HttpStatus.CREATED);
     }
 
 
     @CrossOrigin
     @PostMapping("/profile/review/add")
-    public ResponseEntity<MyReview> addIssue(@RequestBody MyReview review) {
+    public ResponseEntity<MyReview> addIssue(@RequestBody MyReview review,
+                                             @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
         // Save the issue to the database or in-memory store
         // For now, just print it to the console
-        log.info("review to be added :" + review);
+        log.info("review to be added: {}", review);
+        if (actsForSomeoneElse(session, review.getEmail())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
 
         MyReview finalReview = cofixService.addReview(review);
         if(finalReview!=null){
@@ -287,13 +433,19 @@ public class CofixLoginController {
         } else {
             log.error("Failed to add issue post");
         }
-        log.info("New community post added for user: "+ finalReview);
+        log.info("New community post added for user: {}", finalReview);
         return new ResponseEntity<>(finalReview, HttpStatus.CREATED);
     }
 
+    /**
+     * Reports a community issue and answers 201. Unless allowDuplicate is set, the recent nearby issues the report
+     * looks like, by its text or by its photo, are returned as possibleDuplicates; the report is saved either way.
+     * The photo is either a multipart file, streamed into the blob store with the same size and type limits as
+     * {@code POST /api/images}, or the photoUrl that an earlier upload there returned.
+     */
     @PostMapping("/issues/report")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<Map<String, String>> reportIssue(
+    public ResponseEntity<Map<String, Object>> reportIssue(
         @RequestParam String title,
         @RequestParam String description,
         @RequestParam String category,
@@ -301,8 +453,14 @@ public class CofixLoginController {
         @RequestParam Double latitude,
         @RequestParam Double longitude,
         @RequestParam(required = false) MultipartFile photo,
-        @RequestParam String userEmail
+        @RequestParam(required = false) String photoUrl,
+        @RequestParam String userEmail,
+        @RequestParam(defaultValue = "false") boolean allowDuplicate,
+        @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session
     ) {
+        if (actsForSomeoneElse(session, userEmail)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("message", "Cannot report as another user"));
+        }
         try {
             CommunityIssue issue = new CommunityIssue();
             issue.setTitle(title);
@@ -315,68 +473,311 @@ public class CofixLoginController {
             issue.setUserEmail(userEmail);
             issue.setCreatedAt(LocalDateTime.now());
 
-            // Handle photo upload if present
+            // Handle photo upload if present; thumbnails are generated in the background
             if (photo != null && !photo.isEmpty()) {
-                String fileName = UUID.randomUUID().toString() + "_" + photo.getOriginalFilename();
-                String filePath = "uploads/" + fileName;
-                // Save file to server
-                photo.transferTo(new File(filePath));
-                issue.setPhotoUrl(filePath);
+                try (InputStream in = photo.getInputStream()) {
+                    issue.setPhotoUrl(postImageService.storeUpload(in));
+                }
+            } else if (photoUrl != null && !photoUrl.isBlank()) {
+                if (!postImageService.isStored(photoUrl)) {
+                    return ResponseEntity.badRequest().body(Collections.singletonMap("message", "photoUrl is not an uploaded image"));
+                }
+                issue.setPhotoUrl(photoUrl);
+            }
+            List<DuplicateMatch> duplicates = List.of();
+            if (!allowDuplicate) {
+                // Looked up before saving, so the new report doesn't match itself
+                duplicates = duplicateDetector.findDuplicates(latitude, longitude, title, description,
+                        issue.getPhotoUrl() == null ? List.of() : List.of(issue.getPhotoUrl()));
+                logPossibleDuplicates(duplicates);
             }
 
             cofixService.saveIssue(issue);
-            
-            return ResponseEntity.ok(Collections.singletonMap("message", "Issue reported successfully"));
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("message", "Issue reported successfully");
+            body.put("possibleDuplicates", duplicates);
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        } catch (UploadRejectedException e) {
+            log.info("Rejected issue photo from {}: {}", userEmail, e.getMessage());
+            HttpStatus status = e.getReason() == UploadRejectedException.Reason.TOO_LARGE ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+            return ResponseEntity.status(status).body(Collections.singletonMap("message", e.getMessage()));
         } catch (Exception e) {
             log.error("Error reporting issue:", e);
             return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Failed to report issue"));
         }
     }
 
+    // Without a session (enforce off) the email in the request is taken at its word; with one it has to match
+    private static boolean actsForSomeoneElse(SessionToken session, String email) {
+        return session != null && !session.getEmail().equalsIgnoreCase(email);
+    }
+
+    private static void logPossibleDuplicates(List<DuplicateMatch> duplicates) {
+        if (!duplicates.isEmpty()) {
+            log.info("Flagged possible duplicate of {} {}", duplicates.get(0).getSource(), duplicates.get(0).getId());
+        }
+    }
+
     @GetMapping("/issues/all")
-    public ResponseEntity<List<MyPost>> getAllIssues() {
+    public ResponseEntity<List<PostSummary>> getAllIssues(WebRequest webRequest) {
+        // Taken before the query, so a post committed in between can only make the next tag newer
+        String etag = postVersions.globalTag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         try {
-            List<MyPost> allPosts = cofixService.getPostsRepo().findAll();
-            
-            if (allPosts != null) {
-                allPosts.forEach(post -> {
-                    // Set default benefit type if not set
-                    if (post.getBenefitType() == null) {
-                        post.setBenefitType(BenefitTypes.COMMUNITY_ISSUE);
-                    }
-                    
-                    // Set default location if not set
-                    if (post.getLatitude() == null || post.getLongitude() == null) {
-                        post.setLatitude(17.455598622434977);
-                        post.setLongitude(78.66648576707394);
-                    }
-                    
-                    // Set the location object
-                    post.setLocation(new Location(post.getLatitude(), post.getLongitude()));
-                });
-                
-                log.info("Found {} total issues", allPosts.size());
-                return ResponseEntity.ok(allPosts);
-            }
-            
-            return ResponseEntity.ok(new ArrayList<>());
+            // Summaries already default a missing benefit type and location
+            List<PostSummary> allPosts = cofixService.getAllPosts();
+            log.info("Found {} total issues", allPosts.size());
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(allPosts);
         } catch (Exception e) {
             log.error("Error fetching all issues: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ArrayList<>());
         }
     }
 
+    /**
+     * Paginated variant of /issues/all. Pass the returned nextCursor back as cursor to get the following page.
+     */
+    @GetMapping("/issues/page")
+    public ResponseEntity<?> getIssuesPage(
+        @RequestParam(required = false) BenefitTypes benefitType,
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLng,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        PostFilter filter = new PostFilter(benefitType, minLat, maxLat, minLng, maxLng, from, to);
+        boolean anyBound = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        if (anyBound && !filter.hasBounds()) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "minLat, maxLat, minLng and maxLng must be given together"));
+        }
+        try {
+            PostPage page = cofixService.getPostsPage(filter, cursor, limit);
+            log.debug("Issues page with {} posts for filter {}", page.getPosts().size(), filter);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.info("Rejected issues page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Invalid cursor"));
+        }
+    }
+
+    /**
+     * Streams every post matching the filters as NDJSON or CSV, gzipped when the client accepts it. Rows are written
+     * as they come off the database cursor, so unlike /issues/all this works for any table size.
+     */
+    @GetMapping("/issues/export")
+    public void exportIssues(
+        @RequestParam(defaultValue = PostExportService.NDJSON) String format,
+        @RequestParam(required = false) BenefitTypes benefitType,
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLng,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        if (!PostExportService.NDJSON.equals(format) && !PostExportService.CSV.equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+        PostFilter filter = new PostFilter(benefitType, minLat, maxLat, minLng, maxLng, from, to);
+        boolean anyBound = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        if (anyBound && !filter.hasBounds()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minLat, maxLat, minLng and maxLng must be given together");
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setContentType(PostExportService.CSV.equals(format) ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts." + format + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        postExportService.export(filter, format, out);
+        if (out instanceof GZIPOutputStream gzipOut) {
+            // Only a complete export gets the gzip trailer, so a failure shows up as a truncated download
+            gzipOut.finish();
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Server-Sent Events stream of post-created and post-deleted events, optionally limited to a benefit type, a map
+     * viewport and one user's posts. A resync event means events were dropped and the client should refetch.
+     */
+    @GetMapping(value = "/issues/feed", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> getIssueFeed(
+        @RequestParam(required = false) BenefitTypes benefitType,
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLng,
+        @RequestParam(required = false) String email
+    ) {
+        PostFilter filter = new PostFilter(benefitType, minLat, maxLat, minLng, maxLng, null, null);
+        boolean anyBound = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        if (anyBound && !filter.hasBounds()) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = postFeedService.subscribe(filter, email);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+        }
+        return ResponseEntity.ok()
+            // Stops nginx and similar proxies from holding events back in their buffers
+            .header("X-Accel-Buffering", "no")
+            .body(emitter);
+    }
+
+    /**
+     * Posts inside the map viewport, answered from the in-memory spatial index.
+     */
+    @GetMapping("/issues/in-bounds")
+    public ResponseEntity<List<PostSummary>> getIssuesInBounds(
+        @RequestParam double minLat,
+        @RequestParam double maxLat,
+        @RequestParam double minLng,
+        @RequestParam double maxLng,
+        @RequestParam(required = false) BenefitTypes benefitType,
+        @RequestParam(required = false) Integer limit
+    ) {
+        if (minLat > maxLat) {
+            return ResponseEntity.badRequest().build();
+        }
+        int maxResults = limit == null ? PostSpatialIndex.DEFAULT_RESULT_LIMIT : Math.max(1, Math.min(limit, PostSpatialIndex.MAX_RESULT_LIMIT));
+        return ResponseEntity.ok(postSpatialIndex.findInBounds(minLat, maxLat, minLng, maxLng, benefitType, maxResults));
+    }
+
+    /**
+     * The open issues (community issue posts and reports) nearest to (lat, lng), closest first by great-circle
+     * distance: at most k of them and, when radius is given, only those within radius meters.
+     */
+    @GetMapping("/issues/nearby")
+    public ResponseEntity<List<NearbyIssue>> getNearbyIssues(
+        @RequestParam double lat,
+        @RequestParam double lng,
+        @RequestParam(required = false) Integer k,
+        @RequestParam(required = false) Double radius
+    ) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180 || (radius != null && !(radius > 0))) {
+            return ResponseEntity.badRequest().build();
+        }
+        int maxResults = k == null ? NearbyIndex.DEFAULT_RESULT_LIMIT : Math.max(1, Math.min(k, NearbyIndex.MAX_RESULT_LIMIT));
+        return ResponseEntity.ok(nearbyIndex.findNearest(lat, lng, maxResults, radius));
+    }
+
+    /**
+     * Full-text search over post names, descriptions and comments, best matches first, answered from the in-memory
+     * search index. The last word of q also matches as a prefix.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PostSummary>> search(
+        @RequestParam String q,
+        @RequestParam(required = false) BenefitTypes benefitType,
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLng,
+        @RequestParam(required = false) Integer limit
+    ) {
+        PostFilter filter = new PostFilter(benefitType, minLat, maxLat, minLng, maxLng, null, null);
+        boolean anyBound = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        if (anyBound && !filter.hasBounds()) {
+            return ResponseEntity.badRequest().build();
+        }
+        int maxResults = limit == null ? PostSearchIndex.DEFAULT_RESULT_LIMIT : Math.max(1, Math.min(limit, PostSearchIndex.MAX_RESULT_LIMIT));
+        return ResponseEntity.ok(postSearchIndex.search(q, filter, maxResults));
+    }
+
+    /**
+     * Precomputed marker clusters for the map viewport at the given zoom level.
+     */
+    @GetMapping("/issues/clusters")
+    public ResponseEntity<List<MarkerCluster>> getIssueClusters(
+        @RequestParam double minLat,
+        @RequestParam double maxLat,
+        @RequestParam double minLng,
+        @RequestParam double maxLng,
+        @RequestParam int zoom
+    ) {
+        if (minLat > maxLat) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(postClusterIndex.findClusters(minLat, maxLat, minLng, maxLng, zoom));
+    }
+
+    /**
+     * Dashboard totals: posts by benefit type and reported issues by category, urgency and status.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(statsRollups.getTotals());
+    }
+
+    /**
+     * Posts and reported issues per creation day between from and to (inclusive), oldest first.
+     */
+    @GetMapping("/stats/daily")
+    public ResponseEntity<List<DailyCount>> getDailyStats(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsRollups.getDaily(from, to));
+    }
+
+    /**
+     * Posts and reported issues per grid cell, for the whole map or the cells overlapping the given box.
+     */
+    @GetMapping("/stats/cells")
+    public ResponseEntity<List<CellCount>> getCellStats(
+        @RequestParam(required = false) Double minLat,
+        @RequestParam(required = false) Double maxLat,
+        @RequestParam(required = false) Double minLng,
+        @RequestParam(required = false) Double maxLng
+    ) {
+        boolean anyBound = minLat != null || maxLat != null || minLng != null || maxLng != null;
+        boolean bounded = minLat != null && maxLat != null && minLng != null && maxLng != null;
+        if ((anyBound && !bounded) || (bounded && minLat > maxLat)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bounded
+                ? statsRollups.getCells(true, minLat, maxLat, minLng, maxLng)
+                : statsRollups.getCells(false, 0, 0, 0, 0));
+    }
+
     @GetMapping("/profile/issues")
-    public ResponseEntity<List<MyPost>> showAllCommunityIssues(String email) {
-        List<MyPost> issues = cofixService.getProfileIssues(email);
-        if (!issues.isEmpty()) {
-            // Ensure benefitType is set for community issues
-            issues.forEach(issue -> issue.setBenefitType(BenefitTypes.COMMUNITY_ISSUE));
-            log.debug("Get All issues for user: " + issues);
-            return new ResponseEntity<>(issues, HttpStatus.OK);
-        } else {
-            return ResponseEntity.ok(new ArrayList<>());
+    public ResponseEntity<List<PostSummary>> showAllCommunityIssues(String email, WebRequest webRequest) {
+        String etag = postVersions.emailTag(email);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
         }
+        List<PostSummary> issues = cofixService.getProfileIssues(email);
+        log.debug("Get All issues for user: {} ({} issues)", email, issues.size());
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(issues);
     }
 
     // Add this method to handle location data
@@ -384,13 +785,18 @@ public class CofixLoginController {
         if (post.getLocation() != null) {
             return post.getLocation();
         }
-        return new Location(17.455598622434977, 78.66648576707394);
+        return new Location(Location.DEFAULT_LAT, Location.DEFAULT_LNG);
     }
 
     @GetMapping("/auth/status")
-    public ResponseEntity<Map<String, Object>> checkAuthStatus(@RequestParam String email) {
+    public ResponseEntity<Map<String, Object>> checkAuthStatus(@RequestParam(required = false) String email,
+                                                               @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
         Map<String, Object> response = new HashMap<>();
-        Optional<MyUser> user = cofixService.getUsersRepo().findById(email);
+        if (session != null) {
+            email = session.getEmail();
+            response.put("expiresAt", session.getExpiresAt());
+        }
+        Optional<MyUser> user = email == null ? Optional.empty() : userCache.find(email);
         
         if (user.isPresent()) {
             response.put("isAuthenticated", true);
@@ -403,10 +809,16 @@ public class CofixLoginController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(@RequestParam String email) {
-        // Clear any server-side session if needed
+    public ResponseEntity<Map<String, String>> logout(@RequestParam(required = false) String email,
+                                                      @RequestAttribute(name = SessionTokenFilter.SESSION_ATTRIBUTE, required = false) SessionToken session) {
+        if (session != null) {
+            sessionTokenService.revoke(session);
+            log.info("Revoked session {} for {}", Long.toHexString(session.getTokenId()), session.getEmail());
+        }
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logged out successfully");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.SET_COOKIE, sessionCookie("", 0).toString())
+            .body(response);
     }
 }
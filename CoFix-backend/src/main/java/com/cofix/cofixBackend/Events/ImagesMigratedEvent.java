@@ -0,0 +1,11 @@
+package com.cofix.cofixBackend.Events;
+
+import lombok.ToString;
+
+/**
+ * Published by {@link com.cofix.cofixBackend.Services.ImageMigrationJob} when a run started while the application
+ * was serving replaced inline images with blob references, so indexes holding post summaries can reload them.
+ */
+@ToString
+public class ImagesMigratedEvent {
+}
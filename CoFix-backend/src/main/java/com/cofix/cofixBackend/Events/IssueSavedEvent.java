@@ -0,0 +1,17 @@
+package com.cofix.cofixBackend.Events;
+
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link com.cofix.cofixBackend.Services.CofixService} after a reported community issue has been
+ * inserted or updated.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class IssueSavedEvent {
+    CommunityIssue issue;
+}
@@ -0,0 +1,16 @@
+package com.cofix.cofixBackend.Events;
+
+import com.cofix.cofixBackend.Models.PostSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link com.cofix.cofixBackend.Services.CofixService} after a post has been saved.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostCreatedEvent {
+    PostSummary post;
+}
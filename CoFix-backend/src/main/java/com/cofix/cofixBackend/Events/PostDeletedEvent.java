@@ -0,0 +1,16 @@
+package com.cofix.cofixBackend.Events;
+
+import com.cofix.cofixBackend.Models.PostSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link com.cofix.cofixBackend.Services.CofixService} for every post row removed by a delete.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostDeletedEvent {
+    PostSummary post;
+}
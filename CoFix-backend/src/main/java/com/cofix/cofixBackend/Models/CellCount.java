@@ -0,0 +1,23 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Posts and reported community issues inside one grid cell, which spans {@code size} degrees north and east of
+ * its south-west corner.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CellCount {
+    double minLat;
+    double minLng;
+    double size;
+    long posts;
+    Map<BenefitTypes, Long> byBenefitType;
+    long reports;
+}
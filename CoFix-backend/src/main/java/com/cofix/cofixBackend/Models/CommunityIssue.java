@@ -25,4 +25,8 @@ public class CommunityIssue {
     private String photoUrl;
     private String userEmail;
     private LocalDateTime createdAt;
+
+    public String getThumbnailUrl() {
+        return ImageReferences.thumbnailUrl(photoUrl);
+    }
 } 
\ No newline at end of file
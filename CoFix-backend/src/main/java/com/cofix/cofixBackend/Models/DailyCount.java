@@ -0,0 +1,21 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Posts and reported community issues created on one day.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DailyCount {
+    LocalDate date;
+    long posts;
+    Map<BenefitTypes, Long> byBenefitType;
+    long reports;
+}
@@ -0,0 +1,25 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recent post ({@code source} "post") or reported issue ({@code source} "report") that a new submission looks
+ * like a repeat of, with how far away it is, the estimated share of text the two have in common and whether they
+ * carry the same (or a near-identical) photo.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DuplicateMatch {
+    String source;
+    Long id;
+    String title;
+    double distanceMeters;
+    double similarity;
+    boolean sameImage;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,65 @@
+package com.cofix.cofixBackend.Models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued notification email. Rows are written in the request thread and delivered later by
+ * {@link com.cofix.cofixBackend.Services.EmailDispatcher}.
+ */
+@Entity
+@Table(schema = "${cofix.schema.name}", name = "email_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "body")
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "message_id")
+    Long messageId;
+
+    @Column(name = "to_email")
+    String toEmail;
+
+    @Column(name = "subject")
+    String subject;
+
+    @Column(name = "body")
+    String body;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    OutboxStatus status;
+
+    @Column(name = "attempts")
+    int attempts;
+
+    // Not picked up before this time; also acts as the lease while a worker is sending
+    @Column(name = "next_attempt_at")
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    String lastError;
+
+    @Column(name = "create_date")
+    LocalDateTime createDate;
+
+    @Column(name = "sent_date")
+    LocalDateTime sentDate;
+
+    public EmailOutboxMessage(String toEmail, String subject, String body) {
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.body = body;
+        this.status = OutboxStatus.PENDING;
+        this.createDate = LocalDateTime.now();
+        this.nextAttemptAt = this.createDate;
+    }
+}
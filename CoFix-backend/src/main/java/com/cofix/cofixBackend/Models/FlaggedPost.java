@@ -0,0 +1,21 @@
+package com.cofix.cofixBackend.Models;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A newly saved post together with the recent nearby issues it may repeat. The post's own fields stay at the top
+ * level of the JSON, so clients that only read the post are unaffected.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class FlaggedPost {
+    @JsonUnwrapped
+    MyPost post;
+    List<DuplicateMatch> possibleDuplicates;
+}
@@ -0,0 +1,44 @@
+package com.cofix.cofixBackend.Models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blob references as stored in posts and issue reports, i.e. "/api/images/" followed by the blob hash.
+ */
+public final class ImageReferences {
+
+    public static final String PREFIX = "/api/images/";
+
+    private ImageReferences() {
+    }
+
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    public static String hashOf(String reference) {
+        return isReference(reference) ? reference.substring(PREFIX.length()) : null;
+    }
+
+    /**
+     * URL of the thumbnail rendition for a blob reference, or null for anything else.
+     */
+    public static String thumbnailUrl(String reference) {
+        return isReference(reference) ? reference + "?size=" + ImageRendition.THUMB.getSuffix() : null;
+    }
+
+    /**
+     * The blob references among the post's images.
+     */
+    public static List<String> referencesOf(MyPost post) {
+        List<String> references = new ArrayList<>();
+        if (isReference(post.getImage())) {
+            references.add(post.getImage());
+        }
+        if (post.getImages() != null) {
+            post.getImages().stream().filter(ImageReferences::isReference).forEach(references::add);
+        }
+        return references;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.Getter;
+
+/**
+ * Downscaled copies generated for every uploaded image. {@code maxSize} bounds the longer edge in pixels.
+ */
+@Getter
+public enum ImageRendition {
+    THUMB("thumb", 200),
+    MEDIUM("medium", 1024);
+
+    private final String suffix;
+    private final int maxSize;
+
+    ImageRendition(String suffix, int maxSize) {
+        this.suffix = suffix;
+        this.maxSize = maxSize;
+    }
+
+    public static ImageRendition fromSuffix(String suffix) {
+        for (ImageRendition rendition : values()) {
+            if (rendition.suffix.equalsIgnoreCase(suffix)) {
+                return rendition;
+            }
+        }
+        return null;
+    }
+}
@@ -1,6 +1,10 @@
 package com.cofix.cofixBackend.Models;
 
 public class Location {
+    // Fallback position for posts saved without coordinates
+    public static final double DEFAULT_LAT = 17.455598622434977;
+    public static final double DEFAULT_LNG = 78.66648576707394;
+
     private Double lat;
     private Double lng;
 
@@ -0,0 +1,21 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Aggregate of all posts in one cluster cell: the centroid of their locations, how many there are
+ * and how they split across benefit types.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MarkerCluster {
+    double lat;
+    double lng;
+    int count;
+    Map<BenefitTypes, Integer> byBenefitType;
+}
@@ -2,6 +2,7 @@ package com.cofix.cofixBackend.Models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,7 +25,7 @@ public class MyPost{
     @Id
     @Column(name = "post_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "my_sequence_generator")
-    @SequenceGenerator(name = "my_sequence_generator", sequenceName = "public.posts_post_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "my_sequence_generator", sequenceName = "public.posts_post_id_seq", allocationSize = 50)
     Long postId;
 
     @Column(name = "benefit_type")
@@ -61,6 +62,8 @@ public class MyPost{
 
     @Column(name = "images")
     @ElementCollection
+    // Entity loads outside the summary queries still fetch image lists for many posts at once
+    @BatchSize(size = 100)
     @CollectionTable(
         name = "post_images",
         joinColumns = {
@@ -112,6 +115,10 @@ public class MyPost{
         location.setLng(longitude);
     }
 
+    public String getThumbnailUrl() {
+        return ImageReferences.thumbnailUrl(image);
+    }
+
     public List<String> getImages() {
         return images;
     }
@@ -17,7 +17,7 @@ public class MyReview {
     @Id
     @Column(name = "review_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "my_sequence_generator2")
-    @SequenceGenerator(name = "my_sequence_generator2", sequenceName = "public.reviews_review_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "my_sequence_generator2", sequenceName = "public.reviews_review_id_seq", allocationSize = 50)
     Long reviewId;
     String name;
     String email;
@@ -0,0 +1,26 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An open community issue post ({@code source} "post") or reported issue ({@code source} "report") near a given
+ * position, with its great-circle distance from there. Category and status are only set for reports.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NearbyIssue {
+    String source;
+    Long id;
+    String title;
+    String category;
+    String status;
+    double latitude;
+    double longitude;
+    double distanceMeters;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.cofix.cofixBackend.Models;
+
+public enum OutboxStatus {
+        PENDING,
+        SENT,
+        FAILED
+}
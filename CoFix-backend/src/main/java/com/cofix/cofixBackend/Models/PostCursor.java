@@ -0,0 +1,47 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position (createDate, postId) of the last post on a page, encoded as an opaque url-safe token.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostCursor {
+
+    // Starting position when no cursor is given: newer than anything in the table
+    public static final PostCursor FIRST = new PostCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    LocalDateTime createDate;
+    Long postId;
+
+    public static PostCursor after(PostSummary post) {
+        return new PostCursor(post.getCreateDate(), post.getPostId());
+    }
+
+    public String encode() {
+        String raw = createDate + "|" + postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PostCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new PostCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters shared by the list endpoints. Any field left null is not applied.
+ * The bounding box is only applied when all four corners are present.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostFilter {
+
+    BenefitTypes benefitType;
+    Double minLat;
+    Double maxLat;
+    Double minLng;
+    Double maxLng;
+    LocalDateTime from;
+    LocalDateTime to;
+
+    public boolean hasBounds() {
+        return minLat != null && maxLat != null && minLng != null && maxLng != null;
+    }
+
+    public boolean matches(PostSummary post) {
+        if (benefitType != null && benefitType != post.getBenefitType()) {
+            return false;
+        }
+        if (hasBounds()) {
+            double lat = post.getLatitude();
+            double lng = post.getLongitude();
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+                return false;
+            }
+        }
+        if (from != null && (post.getCreateDate() == null || post.getCreateDate().isBefore(from))) {
+            return false;
+        }
+        return to == null || (post.getCreateDate() != null && post.getCreateDate().isBefore(to));
+    }
+}
@@ -0,0 +1,16 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One element of a post's {@code post_images} collection, loaded in bulk for a whole list of posts.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostImageRef {
+    Long postId;
+    String image;
+}
@@ -0,0 +1,51 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk post import. Only the first {@code maxErrors} row errors are kept, so a file full of bad rows
+ * cannot exhaust memory; {@code failed} still counts all of them.
+ */
+@Getter
+@ToString
+public class PostImportResult {
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class RowError {
+        long line;
+        String message;
+    }
+
+    long imported;
+    long failed;
+    boolean errorsTruncated;
+    List<RowError> errors = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final int maxErrors;
+
+    public PostImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void imported(int rows) {
+        imported += rows;
+    }
+
+    public void reject(long line, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
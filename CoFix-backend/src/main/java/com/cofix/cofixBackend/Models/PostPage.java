@@ -0,0 +1,18 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * One page of posts ordered by (createDate, postId) descending. {@code nextCursor} is null on the last page.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostPage {
+    List<PostSummary> posts;
+    String nextCursor;
+}
@@ -0,0 +1,75 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only list view of a {@link MyPost}. It carries blob references for the images but never inline image data,
+ * so list queries stay small no matter how large the images are. {@code images} is filled in with one bulk query
+ * per list rather than one query per post.
+ * Missing benefit types and locations are defaulted the same way {@code /api/issues/all} does.
+ */
+@Getter
+@ToString
+public class PostSummary {
+
+    String email;
+    Long postId;
+    BenefitTypes benefitType;
+    String schemeName;
+    String description;
+    String image;
+    String issueName;
+    String activityDescription;
+    Location location;
+    String comment;
+    LocalDateTime createDate;
+    @Setter
+    List<String> images = List.of();
+
+    public PostSummary(String email, Long postId, BenefitTypes benefitType, String schemeName, String description,
+                       String image, String issueName, String activityDescription, Double latitude, Double longitude,
+                       String comment, LocalDateTime createDate) {
+        this.email = email;
+        this.postId = postId;
+        this.benefitType = benefitType != null ? benefitType : BenefitTypes.COMMUNITY_ISSUE;
+        this.schemeName = schemeName;
+        this.description = description;
+        this.image = ImageReferences.isReference(image) ? image : null;
+        this.issueName = issueName;
+        this.activityDescription = activityDescription;
+        if (latitude == null || longitude == null) {
+            this.location = new Location(Location.DEFAULT_LAT, Location.DEFAULT_LNG);
+        } else {
+            this.location = new Location(latitude, longitude);
+        }
+        this.comment = comment;
+        this.createDate = createDate;
+    }
+
+    public static PostSummary of(MyPost post) {
+        PostSummary summary = new PostSummary(post.getEmail(), post.getPostId(), post.getBenefitType(), post.getSchemeName(),
+                post.getDescription(), post.getImage(), post.getIssueName(), post.getActivityDescription(), post.getLatitude(),
+                post.getLongitude(), post.getComment(), post.getCreateDate());
+        if (post.getImages() != null) {
+            summary.setImages(post.getImages().stream().filter(ImageReferences::isReference).toList());
+        }
+        return summary;
+    }
+
+    public String getThumbnailUrl() {
+        return ImageReferences.thumbnailUrl(image);
+    }
+
+    public Double getLatitude() {
+        return location.getLat();
+    }
+
+    public Double getLongitude() {
+        return location.getLng();
+    }
+}
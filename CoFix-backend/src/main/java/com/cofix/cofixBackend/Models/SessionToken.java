@@ -0,0 +1,18 @@
+package com.cofix.cofixBackend.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Claims carried by a verified session token: who it was issued to, its random id and when it expires
+ * (epoch seconds).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SessionToken {
+    String email;
+    long tokenId;
+    long expiresAt;
+}
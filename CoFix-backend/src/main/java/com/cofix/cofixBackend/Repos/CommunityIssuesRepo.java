@@ -0,0 +1,13 @@
+package com.cofix.cofixBackend.Repos;
+
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CommunityIssuesRepo extends JpaRepository<CommunityIssue, Long> {
+    List<CommunityIssue> findByCreatedAtGreaterThanEqual(LocalDateTime since);
+}
@@ -0,0 +1,31 @@
+package com.cofix.cofixBackend.Repos;
+
+import com.cofix.cofixBackend.Models.EmailOutboxMessage;
+import com.cofix.cofixBackend.Models.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepo extends JpaRepository<EmailOutboxMessage, Long> {
+
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Pending messages that are due, locked FOR UPDATE SKIP LOCKED so concurrent dispatchers never claim the same row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from EmailOutboxMessage m where m.status = com.cofix.cofixBackend.Models.OutboxStatus.PENDING " +
+            "and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<EmailOutboxMessage> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+}
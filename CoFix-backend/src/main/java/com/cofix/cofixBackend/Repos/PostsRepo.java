@@ -1,19 +1,132 @@
 package com.cofix.cofixBackend.Repos;
 
 import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.ImageReferences;
+import com.cofix.cofixBackend.Models.Location;
 import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostImageRef;
 import com.cofix.cofixBackend.Models.PostPk;
+import com.cofix.cofixBackend.Models.PostSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostsRepo extends JpaRepository<MyPost, PostPk> {
+
+    // Image columns that still hold inline data are not selected, only blob references are
+    String SUMMARY_SELECT = "select new com.cofix.cofixBackend.Models.PostSummary(p.email, p.postId, p.benefitType, " +
+            "p.schemeName, p.description, " +
+            "case when p.image like '" + ImageReferences.PREFIX + "%' then p.image else null end, " +
+            "p.issueName, p.activityDescription, p.location.lat, p.location.lng, p.comment, p.createDate) from MyPost p ";
+
+    // Rows the export cursor pulls from the database per round trip
+    String EXPORT_FETCH_SIZE = "1000";
+
     List<MyPost> findByEmail(String email);
     List<MyPost> findByEmailAndBenefitType(String email, BenefitTypes benefitType);
     List<MyPost> findByBenefitType(BenefitTypes benefitTypes);
     void deleteByPostId(Long postId);
+    List<MyPost> findByPostIdGreaterThanOrderByPostIdAsc(Long postId, Pageable pageable);
+
+    // Only elements that are blob references, in the same shape for every list query below
+    String IMAGE_REF_SELECT = "select new com.cofix.cofixBackend.Models.PostImageRef(p.postId, i) from MyPost p join p.images i " +
+            "where i like '" + ImageReferences.PREFIX + "%' ";
+
+    @Query(SUMMARY_SELECT)
+    List<PostSummary> findAllSummaries();
+
+    // Posts with an image that is neither empty, a blob reference nor an external URL, i.e. that the image migration would move
+    @Query("select count(distinct p.postId) from MyPost p left join p.images i " +
+            "where (p.image <> '' and p.image not like '" + ImageReferences.PREFIX + "%' and p.image not like 'http%') " +
+            "or (i <> '' and i not like '" + ImageReferences.PREFIX + "%' and i not like 'http%')")
+    long countPostsWithInlineImages();
+
+    @Query(SUMMARY_SELECT + "where p.email = :email")
+    List<PostSummary> findSummariesByEmail(@Param("email") String email);
+
+    @Query(SUMMARY_SELECT + "where p.email = :email and p.benefitType = :benefitType")
+    List<PostSummary> findSummariesByEmailAndBenefitType(@Param("email") String email, @Param("benefitType") BenefitTypes benefitType);
+
+    @Query(SUMMARY_SELECT + "where p.benefitType = :benefitType")
+    List<PostSummary> findSummariesByBenefitType(@Param("benefitType") BenefitTypes benefitType);
+
+    @Query(IMAGE_REF_SELECT)
+    List<PostImageRef> findAllImageRefs();
+
+    @Query(IMAGE_REF_SELECT + "and p.email = :email")
+    List<PostImageRef> findImageRefsByEmail(@Param("email") String email);
+
+    @Query(IMAGE_REF_SELECT + "and p.email = :email and p.benefitType = :benefitType")
+    List<PostImageRef> findImageRefsByEmailAndBenefitType(@Param("email") String email, @Param("benefitType") BenefitTypes benefitType);
+
+    @Query(IMAGE_REF_SELECT + "and p.benefitType = :benefitType")
+    List<PostImageRef> findImageRefsByBenefitType(@Param("benefitType") BenefitTypes benefitType);
+
+    @Query(IMAGE_REF_SELECT + "and p.postId in :postIds")
+    List<PostImageRef> findImageRefsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Query(SUMMARY_SELECT + "where p.postId = :postId")
+    List<PostSummary> findSummariesByPostId(@Param("postId") Long postId);
+
+    // Posts without a benefit type count as community issues, as in findSummaryPage
+    @Query(SUMMARY_SELECT + "where (p.benefitType = :benefitType or p.benefitType is null) and p.createDate >= :since")
+    List<PostSummary> findIssueSummariesCreatedSince(@Param("benefitType") BenefitTypes benefitType, @Param("since") LocalDateTime since);
+
+    /**
+     * Keyset page of post summaries strictly after (cursorDate, cursorId) in (createDate, postId) descending order.
+     * Posts without a benefit type count as community issues and posts without coordinates sit at the default
+     * location, matching what {@code /api/issues/all} returns. The page size comes from {@code pageable}.
+     */
+    @Query(SUMMARY_SELECT +
+            "where (p.benefitType in :benefitTypes or (:includeUntyped = true and p.benefitType is null)) " +
+            "and p.createDate >= :from " +
+            "and (p.createDate < :cursorDate or (p.createDate = :cursorDate and p.postId < :cursorId)) " +
+            "and (:bounded = false or (" +
+            "coalesce(p.location.lat, " + Location.DEFAULT_LAT + ") between :minLat and :maxLat " +
+            "and coalesce(p.location.lng, " + Location.DEFAULT_LNG + ") between :minLng and :maxLng)) " +
+            "order by p.createDate desc, p.postId desc")
+    List<PostSummary> findSummaryPage(@Param("benefitTypes") Collection<BenefitTypes> benefitTypes,
+                                      @Param("includeUntyped") boolean includeUntyped,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      @Param("bounded") boolean bounded,
+                                      @Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                      @Param("minLng") double minLng, @Param("maxLng") double maxLng,
+                                      Pageable pageable);
+
+    /**
+     * Every post matching the filter, read through a forward-only cursor {@link #EXPORT_FETCH_SIZE} rows at a time
+     * instead of being loaded as a list. The stream must be consumed inside a transaction (Postgres only uses a
+     * cursor outside auto-commit) and closed afterwards. Filters work like {@link #findSummaryPage}, except that
+     * posts without a create date are included unless a date range is given.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SUMMARY_SELECT +
+            "where (p.benefitType in :benefitTypes or (:includeUntyped = true and p.benefitType is null)) " +
+            "and (:dated = false or (p.createDate >= :from and p.createDate < :to)) " +
+            "and (:bounded = false or (" +
+            "coalesce(p.location.lat, " + Location.DEFAULT_LAT + ") between :minLat and :maxLat " +
+            "and coalesce(p.location.lng, " + Location.DEFAULT_LNG + ") between :minLng and :maxLng))")
+    Stream<PostSummary> streamSummaries(@Param("benefitTypes") Collection<BenefitTypes> benefitTypes,
+                                        @Param("includeUntyped") boolean includeUntyped,
+                                        @Param("dated") boolean dated,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("bounded") boolean bounded,
+                                        @Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                        @Param("minLng") double minLng, @Param("maxLng") double maxLng);
 
 //    MyPost findByEmailAndPostId(String email,String postId);
-}
\ No newline at end of file
+}
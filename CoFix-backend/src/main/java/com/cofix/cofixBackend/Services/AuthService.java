@@ -8,10 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
@@ -20,7 +21,10 @@ public class AuthService implements Ordered {
 
     @Autowired
     private UsersRepo userRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private PasswordHasher passwordHasher;
 
     @Value("${admin-email}")
     String adminEmail;
@@ -31,28 +35,51 @@ public class AuthService implements Ordered {
         // Add admin data
         if(userRepository.findByEmail(adminEmail)==null) {
             log.info("++++++++++++++ CREATING ADMIN USER ++++++++++++++");
-            userRepository.save(new MyUser("admin", adminEmail, passwordEncoder.encode("admin")));
+            userRepository.save(new MyUser("admin", adminEmail, passwordHasher.hash("admin")));
         }
         // Add test user data
         if(userRepository.findByEmail("test@user.com") == null) {
             log.info("++++++++++++++ CREATING TEST USER ++++++++++++++++");
-            userRepository.save(new MyUser("test@user.com", "Test User", passwordEncoder.encode("password"), "testy", "1234567890", "India", "Male", "Telangana", LocalDateTime.now()));
+            userRepository.save(new MyUser("test@user.com", "Test User", passwordHasher.hash("password"), "testy", "1234567890", "India", "Male", "Telangana", LocalDateTime.now()));
         }
         log.info("======================= AuthService initialized =======================");
     }
 
-    public boolean loginUser(String email, String rawPassword) {
-        MyUser user = userRepository.findByEmail(email);
-        if (user != null) {
-            return passwordEncoder.matches(rawPassword, user.getPassword());
+    /**
+     * Verifies the password on the hashing pool. Throws {@link PasswordHasherBusyException} when the pool is full.
+     * A hash made with a different BCrypt cost than the configured one is replaced after a successful login.
+     */
+    public CompletableFuture<Boolean> loginUser(String email, String rawPassword) {
+        Optional<MyUser> user = userCache.find(email);
+        if (user.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        MyUser found = user.get();
+        return passwordHasher.submit(() -> {
+            if (!passwordHasher.matches(rawPassword, found.getPassword())) {
+                return false;
+            }
+            if (passwordHasher.needsRehash(found.getPassword())) {
+                rehash(found, rawPassword);
+            }
+            return true;
+        });
+    }
+
+    private void rehash(MyUser user, String rawPassword) {
+        try {
+            user.setPassword(passwordHasher.hash(rawPassword));
+            userCache.save(user);
+            log.info("Rehashed password for {} with the current BCrypt strength", user.getEmail());
+        } catch (Exception e) {
+            log.warn("Could not rehash password for {}", user.getEmail(), e);
         }
-        return false;
     }
 
     public MyUser registerUser(MyUser user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         user.setCreateDate(LocalDateTime.now());
-        return userRepository.save(user);
+        return userCache.save(user);
     }
 
     @Override
@@ -0,0 +1,252 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.ImageRendition;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for images. Each blob is stored once under its SHA-256 hash, sharded two
+ * directory levels deep ({@code ab/cd/abcd...}) so no single directory grows too large.
+ * Blobs are written to a temp file first and moved into place, so readers never see a partial file.
+ */
+@Service
+@Slf4j
+public class BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Enough leading bytes to tell every supported image type apart
+    public static final int MAGIC_BYTES = 12;
+
+    @Value("${cofix.blobs.root:blobs}")
+    String root;
+
+    private Path rootPath;
+    private Path tmpPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        rootPath = Paths.get(root).toAbsolutePath().normalize();
+        tmpPath = rootPath.resolve("tmp");
+        Files.createDirectories(tmpPath);
+        log.info("Blob store at {}", rootPath);
+    }
+
+    public String put(byte[] data) {
+        try {
+            return put(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob", e);
+        }
+    }
+
+    /**
+     * Stores the stream's content and returns its hash. Storing content that already exists is a no-op.
+     */
+    public String put(InputStream in) throws IOException {
+        try (Staged staged = stage(in)) {
+            staged.commit();
+            return staged.getHash();
+        }
+    }
+
+    /**
+     * Writes the stream's content to a temp file and hashes it on the way, without adding it to the store yet.
+     * The caller can look at the file and then {@link Staged#commit() commit} it; closing the staged blob
+     * deletes whatever was not committed.
+     */
+    public Staged stage(InputStream in) throws IOException {
+        return stage(in, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #stage(InputStream)}, but gives up with {@link UploadRejectedException} as soon as more than
+     * {@code maxBytes} have been read, so an oversized upload is never written out in full.
+     */
+    public Staged stage(InputStream in, long maxBytes) throws IOException {
+        Path tmp = Files.createTempFile(tmpPath, "blob-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long size = 0;
+            try (ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = source.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw UploadRejectedException.tooLarge(maxBytes);
+                    }
+                    buffer.flip();
+                    digest.update(buffer.array(), 0, buffer.limit());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            return new Staged(tmp, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    public Optional<Path> find(String hash) {
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public Path pathFor(String hash) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Not a blob hash: " + hash);
+        }
+        return rootPath.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Location of a downscaled copy, stored next to the original blob.
+     */
+    public Path renditionPathFor(String hash, ImageRendition rendition) {
+        return pathFor(hash).resolveSibling(hash + "." + rendition.getSuffix() + ".jpg");
+    }
+
+    public Optional<Path> findRendition(String hash, ImageRendition rendition) {
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = renditionPathFor(hash, rendition);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Location of a small metadata file kept next to the original blob, such as its perceptual hash.
+     */
+    public Path sidecarPathFor(String hash, String suffix) {
+        return pathFor(hash).resolveSibling(hash + "." + suffix);
+    }
+
+    /**
+     * Passes every stored file whose name ends with {@code "." + suffix} to the action.
+     */
+    public void forEachSidecar(String suffix, Consumer<Path> action) throws IOException {
+        String ending = "." + suffix;
+        // Shard directories are two levels deep, so blob files sit at depth three
+        try (Stream<Path> paths = Files.walk(rootPath, 3)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(ending) && Files.isRegularFile(path)).forEach(action);
+        }
+    }
+
+    public void putRendition(String hash, ImageRendition rendition, byte[] data) throws IOException {
+        Path tmp = Files.createTempFile(tmpPath, "rendition-", ".part");
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, renditionPathFor(hash, rendition), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    /**
+     * Image type from the file's magic bytes, since blobs are stored without an extension.
+     */
+    public static String probeContentType(Path path) throws IOException {
+        byte[] head = new byte[MAGIC_BYTES];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        return probeContentType(head, read);
+    }
+
+    /**
+     * Image type from the first {@code read} bytes of a file or stream, or application/octet-stream if it is not
+     * one of the supported images.
+     */
+    public static String probeContentType(byte[] head, int read) {
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F') {
+            return "image/gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * Content written to a temp file but not yet part of the store.
+     */
+    @Getter
+    public class Staged implements Closeable {
+        private final Path path;
+        private final String hash;
+
+        private Staged(Path path, String hash) {
+            this.path = path;
+            this.hash = hash;
+        }
+
+        /**
+         * Moves the content into the store under its hash, unless the same content is stored already.
+         */
+        public void commit() throws IOException {
+            Path target = pathFor(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
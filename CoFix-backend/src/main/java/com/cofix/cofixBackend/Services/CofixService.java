@@ -1,6 +1,11 @@
 package com.cofix.cofixBackend.Services;
 
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
 import com.cofix.cofixBackend.Models.*;
+import com.cofix.cofixBackend.Repos.CommunityIssuesRepo;
+import com.cofix.cofixBackend.Repos.EmailOutboxRepo;
 import com.cofix.cofixBackend.Repos.PostsRepo;
 import com.cofix.cofixBackend.Repos.ReviewsRepo;
 import com.cofix.cofixBackend.Repos.UsersRepo;
@@ -12,7 +17,9 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.core.annotation.Order;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -22,7 +29,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -32,16 +43,32 @@ import java.util.Optional;
 //@Order(1)
 public class CofixService implements Ordered {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     PostsRepo postsRepo;
     @Autowired
     UsersRepo usersRepo;
     @Autowired
     ReviewsRepo reviewsRepo;
+    @Autowired
+    EmailOutboxRepo emailOutboxRepo;
+    @Autowired
+    CommunityIssuesRepo communityIssuesRepo;
     @Value("${admin-email}")
     String adminEmail;
     @Autowired
     private EmailSenderService emailSenderService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    PostImageService postImageService;
+
+    // Parsed once; placeholders are filled in the order of the field names below
+    private final EmailTemplate issueNotificationTemplate = EmailTemplate.load("mail-templates/issue-notification.html",
+            "email", "postId", "benefitType", "schemeName", "issueName", "description", "activityDescription",
+            "latitude", "longitude", "comment", "createDate");
 
     public CofixService(){
     }
@@ -75,34 +102,113 @@ public class CofixService implements Ordered {
 
     public MyPost addIssuePost(MyPost myPost){
         myPost.setCreateDate(LocalDateTime.now());
-        return postsRepo.save(myPost);
+        postImageService.externalizeImages(myPost);
+        MyPost saved = postsRepo.save(myPost);
+        eventPublisher.publishEvent(new PostCreatedEvent(PostSummary.of(saved)));
+        return saved;
     }
     public MyPost addSchemePost(MyPost myPost){
         myPost.setCreateDate(LocalDateTime.now());
-        return postsRepo.save(myPost);
+        postImageService.externalizeImages(myPost);
+        MyPost saved = postsRepo.save(myPost);
+        eventPublisher.publishEvent(new PostCreatedEvent(PostSummary.of(saved)));
+        return saved;
     }
 
-    public List<MyPost> getProfilePosts(String email) {
-        log.info("Show all posts for email: " + email);
-        List<MyPost> posts = postsRepo.findByEmail(email);
-        return posts;
+    /**
+     * Every post as a summary. Like all the list methods below, this costs two statements however many posts
+     * there are: one for the summaries and one for all of their image references.
+     */
+    public List<PostSummary> getAllPosts() {
+        return withImages(postsRepo.findAllSummaries(), postsRepo.findAllImageRefs());
     }
 
-    public List<MyPost> getProfileIssues(String email) {
-        log.info("Show all issues for email: " + email);
-        List<MyPost> posts = postsRepo.findByEmailAndBenefitType(email,BenefitTypes.COMMUNITY_ISSUE);
-        return posts;
+    public List<PostSummary> getPostsByBenefitType(BenefitTypes benefitType) {
+        return withImages(postsRepo.findSummariesByBenefitType(benefitType), postsRepo.findImageRefsByBenefitType(benefitType));
+    }
+
+    public List<PostSummary> getProfilePosts(String email) {
+        log.info("Show all posts for email: {}", email);
+        return withImages(postsRepo.findSummariesByEmail(email), postsRepo.findImageRefsByEmail(email));
+    }
+
+    public List<PostSummary> getProfileIssues(String email) {
+        log.info("Show all issues for email: {}", email);
+        return withImages(postsRepo.findSummariesByEmailAndBenefitType(email, BenefitTypes.COMMUNITY_ISSUE),
+                postsRepo.findImageRefsByEmailAndBenefitType(email, BenefitTypes.COMMUNITY_ISSUE));
+    }
+
+    public List<PostSummary> getProfileSchemes(String email) {
+        log.info("Show all schemes for email: {}", email);
+        return withImages(postsRepo.findSummariesByEmailAndBenefitType(email, BenefitTypes.GOVERNMENT_SCHEME),
+                postsRepo.findImageRefsByEmailAndBenefitType(email, BenefitTypes.GOVERNMENT_SCHEME));
     }
 
-    public List<MyPost> getProfileSchemes(String email) {
-        log.info("Show all schemes for email: " + email);
-        List<MyPost> posts = postsRepo.findByEmailAndBenefitType(email,BenefitTypes.GOVERNMENT_SCHEME);
+    private static List<PostSummary> withImages(List<PostSummary> posts, List<PostImageRef> imageRefs) {
+        Map<Long, List<String>> imagesByPost = new HashMap<>();
+        for (PostImageRef ref : imageRefs) {
+            imagesByPost.computeIfAbsent(ref.getPostId(), k -> new ArrayList<>()).add(ref.getImage());
+        }
+        for (PostSummary post : posts) {
+            List<String> images = imagesByPost.get(post.getPostId());
+            if (images != null) {
+                post.setImages(images);
+            }
+        }
         return posts;
     }
 
+    /**
+     * Returns the page of posts that follows {@code cursor} (or the newest page when it is blank), using a keyset
+     * on (createDate, postId) so the cost does not grow with how deep the client has scrolled.
+     * Posts without a create date have no keyset position and are never returned here.
+     */
+    public PostPage getPostsPage(PostFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PostCursor position = (cursor == null || cursor.isBlank()) ? PostCursor.FIRST : PostCursor.decode(cursor);
+        if (filter.getTo() != null && !filter.getTo().isAfter(position.getCreateDate())) {
+            // Upper date bound is exclusive, so start just before it
+            position = new PostCursor(filter.getTo(), Long.MIN_VALUE);
+        }
+        BenefitTypes benefitType = filter.getBenefitType();
+        boolean bounded = filter.hasBounds();
+        List<PostSummary> rows = postsRepo.findSummaryPage(
+                benefitType == null ? EnumSet.allOf(BenefitTypes.class) : EnumSet.of(benefitType),
+                benefitType == null || benefitType == BenefitTypes.COMMUNITY_ISSUE,
+                filter.getFrom() == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : filter.getFrom(),
+                position.getCreateDate(), position.getPostId(),
+                bounded,
+                bounded ? filter.getMinLat() : 0, bounded ? filter.getMaxLat() : 0,
+                bounded ? filter.getMinLng() : 0, bounded ? filter.getMaxLng() : 0,
+                PageRequest.of(0, pageSize + 1));
+
+        List<PostSummary> page = rows.size() <= pageSize ? rows : rows.subList(0, pageSize);
+        if (!page.isEmpty()) {
+            withImages(page, postsRepo.findImageRefsByPostIds(page.stream().map(PostSummary::getPostId).toList()));
+        }
+        String nextCursor = rows.size() > pageSize ? PostCursor.after(page.get(pageSize - 1)).encode() : null;
+        return new PostPage(page, nextCursor);
+    }
+
+    /**
+     * Email of the user who created the post, if it exists.
+     */
+    public Optional<String> findPostOwner(Long postId) {
+        return postsRepo.findSummariesByPostId(postId).stream().findFirst().map(PostSummary::getEmail);
+    }
+
     @Transactional
     public void deletePost(Long postId) {
+        List<PostSummary> deleted = postsRepo.findSummariesByPostId(postId);
         postsRepo.deleteByPostId(postId);
+        // Listeners run after commit, so a rolled back delete leaves them untouched
+        deleted.forEach(post -> eventPublisher.publishEvent(new PostDeletedEvent(post)));
+    }
+
+    public CommunityIssue saveIssue(CommunityIssue issue) {
+        CommunityIssue saved = communityIssuesRepo.save(issue);
+        eventPublisher.publishEvent(new IssueSavedEvent(saved));
+        return saved;
     }
 
     public MyReview addReview(MyReview review){
@@ -130,45 +236,26 @@ public void sendEmail(String toEmail,String subject,String body) throws Messagin
     log.info("mail sent successfully");
 }
 
-    public void sendNotificationEmail(MyPost issuePost,String targetEmail) throws MessagingException {
-        this.sendEmail(targetEmail,"New issue added: User "+ issuePost.getEmail(),generateEmailBody(issuePost));
+    /**
+     * Queues the notification in the email outbox; {@link EmailDispatcher} sends it in the background.
+     */
+    public void sendNotificationEmail(MyPost issuePost,String targetEmail) {
+        emailOutboxRepo.save(new EmailOutboxMessage(targetEmail,"New issue added: User "+ issuePost.getEmail(),generateEmailBody(issuePost)));
+        log.debug("Queued notification email for post {} to {}", issuePost.getPostId(), targetEmail);
     }
 
     public String generateEmailBody(MyPost post) {
-        String emailBody = "<!DOCTYPE html>"
-                + "<html>"
-                + "<head>"
-                + "<meta charset=\"UTF-8\">"
-                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">"
-                + "<style>"
-                + "table { width: 100%; border-collapse: collapse; }"
-                + "th, td { padding: 8px; text-align: left; border-bottom: 1px solid #ddd; }"
-                + "th { background-color: #f2f2f2; }"
-                + "</style>"
-                + "</head>"
-                + "<body>"
-                + "<p>Dear User,</p>"
-                + "<p>A new issue has been created on the platform with the following details:</p>"
-                + "<table>"
-                + "<tr><th>Field</th><th>Details</th></tr>"
-                + "<tr><td><strong>Email</strong></td><td>" + post.getEmail() + "</td></tr>"
-                + "<tr><td><strong>Post ID</strong></td><td>" + post.getPostId() + "</td></tr>"
-                + "<tr><td><strong>Benefit Type</strong></td><td>" + post.getBenefitType() + "</td></tr>"
-                + "<tr><td><strong>Scheme Name</strong></td><td>" + post.getSchemeName() + "</td></tr>"
-                + "<tr><td><strong>Issue Name</strong></td><td>" + post.getIssueName() + "</td></tr>"
-                + "<tr><td><strong>Description</strong></td><td>" + post.getDescription() + "</td></tr>"
-                + "<tr><td><strong>Activity Description</strong></td><td>" + post.getActivityDescription() + "</td></tr>"
-                + "<tr><td><strong>Location</strong></td><td>Latitude: " + (post.getLocation()!=null?post.getLocation().getLat():"Null")
-                + ", Longitude: " + (post.getLocation()!=null?post.getLocation().getLng():"Null") + "</td></tr>"
-                + "<tr><td><strong>Comments</strong></td><td>" + post.getComment() + "</td></tr>"
-                + "<tr><td><strong>Image</strong></td><td>Image is encoded and can be viewed on the platform</td></tr>"
-                + "<tr><td><strong>Date Created</strong></td><td>" + post.getCreateDate() + "</td></tr>"
-                + "</table>"
-                + "<p>Please review the issue and take the necessary actions.</p>"
-                + "<p>Best regards,<br>CoFix Platform Team</p>"
-                + "</body>"
-                + "</html>";
-
-        return emailBody;
+        return issueNotificationTemplate.render(
+                post.getEmail(),
+                post.getPostId(),
+                post.getBenefitType(),
+                post.getSchemeName(),
+                post.getIssueName(),
+                post.getDescription(),
+                post.getActivityDescription(),
+                post.getLocation()!=null?post.getLocation().getLat():"Null",
+                post.getLocation()!=null?post.getLocation().getLng():"Null",
+                post.getComment(),
+                post.getCreateDate());
     }
 }
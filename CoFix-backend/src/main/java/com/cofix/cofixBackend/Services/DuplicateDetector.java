@@ -0,0 +1,415 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.ImagesMigratedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.DuplicateMatch;
+import com.cofix.cofixBackend.Models.ImageReferences;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.CommunityIssuesRepo;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds recent community issues that a new submission probably repeats, so the same pothole isn't reported ten
+ * times over. Submissions are still saved; the matches are returned to the client as possible duplicates.
+ * <p>
+ * Community issue posts and reported issues from the last {@code window-hours} are kept in a grid whose cells are
+ * {@code radius-m} high, each with a MinHash signature of the character trigrams in its title and description.
+ * A check looks only at the cells around the new location, keeps entries within the radius, and compares
+ * signatures, which estimates the Jaccard similarity of the two trigram sets in {@value #SIGNATURE_SIZE} integer
+ * comparisons. Texts shorter than {@code min-text-length} characters are not compared, since a bare "Pothole" shares
+ * most of its trigrams with every other pothole report. A submission whose photo is in the same
+ * {@link ImageHashIndex} group as a nearby entry's is flagged whatever its text, which catches photos that were
+ * re-encoded or resized before being uploaded again. Groups are looked up at check time, not when entries are
+ * loaded, so they are current even if this index was loaded before the hash index. Posts and reports are matched
+ * against each other. Like the other indexes it is loaded once the application is ready and then follows the post
+ * and issue events; entries that fall out of the window are swept periodically.
+ */
+@Service
+@Slf4j
+public class DuplicateDetector {
+
+    public static final String POST = "post";
+    public static final String REPORT = "report";
+
+    static final int SIGNATURE_SIZE = 64;
+    static final int MAX_MATCHES = 5;
+
+    private static final int SHINGLE_LENGTH = 3;
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final long[] SEEDS = new SplittableRandom(0x5eed).longs(SIGNATURE_SIZE).toArray();
+
+    @Value("${cofix.duplicates.enabled:true}")
+    boolean enabled;
+    @Value("${cofix.duplicates.radius-m:50}")
+    double radiusMeters;
+    @Value("${cofix.duplicates.window-hours:72}")
+    long windowHours;
+    @Value("${cofix.duplicates.min-similarity:0.5}")
+    double minSimilarity;
+    @Value("${cofix.duplicates.min-text-length:20}")
+    int minTextLength;
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    @Autowired
+    CommunityIssuesRepo communityIssuesRepo;
+
+    @Autowired
+    ImageHashIndex imageHashIndex;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // cell key -> entries in that cell
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    // "post:<postId>" or "report:<id>" -> entry
+    private final Map<String, Entry> byKey = new HashMap<>();
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong flagged = new AtomicLong();
+
+    @EventListener({ApplicationReadyEvent.class, ImagesMigratedEvent.class})
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusHours(windowHours);
+        List<PostSummary> posts = postsRepo.findIssueSummariesCreatedSince(BenefitTypes.COMMUNITY_ISSUE, since);
+        List<CommunityIssue> issues = communityIssuesRepo.findByCreatedAtGreaterThanEqual(since);
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            cells.clear();
+            byKey.clear();
+            posts.forEach(this::insert);
+            issues.forEach(this::insert);
+            log.info("Duplicate index built with {} recent issues in {} ms", byKey.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        if (!enabled || event.getPost().getBenefitType() != BenefitTypes.COMMUNITY_ISSUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(event.getPost());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(POST + ":" + event.getPost().getPostId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueSaved(IssueSavedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(event.getIssue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recent posts and reports within the radius of (lat, lng) whose text is at least {@code min-similarity} alike,
+     * most similar first and at most {@value #MAX_MATCHES} of them. Empty when detection is disabled or the
+     * submission's text is shorter than {@code min-text-length}.
+     */
+    public List<DuplicateMatch> findDuplicates(double lat, double lng, String title, String description) {
+        return findDuplicates(lat, lng, title, description, List.of());
+    }
+
+    /**
+     * Like {@link #findDuplicates(double, double, String, String)}, but also matches entries that refer to any of the
+     * given image references. Those come first.
+     */
+    public List<DuplicateMatch> findDuplicates(double lat, double lng, String title, String description, Collection<String> images) {
+        if (!enabled) {
+            return List.of();
+        }
+        int[] signature = signatureOf(title, description);
+        return signature == null && images.isEmpty() ? List.of() : find(lat, lng, signature, images);
+    }
+
+    // Blob references resolve to their group of near-identical images; anything else only matches itself
+    private String imageGroup(String image) {
+        String hash = ImageReferences.hashOf(image);
+        return hash == null ? image : imageHashIndex.groupOf(hash);
+    }
+
+    private List<DuplicateMatch> find(double lat, double lng, int[] signature, Collection<String> images) {
+        checks.incrementAndGet();
+        double cellSize = cellSize();
+        // A degree of longitude shrinks towards the poles, so more columns can fall inside the radius
+        double lngSpan = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        int minRow = (int) Math.floor((lat - cellSize) / cellSize);
+        int maxRow = (int) Math.floor((lat + cellSize) / cellSize);
+        int minCol = (int) Math.floor((lng - lngSpan) / cellSize);
+        int maxCol = (int) Math.floor((lng + lngSpan) / cellSize);
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(windowHours);
+        Set<String> imageGroups = new HashSet<>();
+        images.forEach(image -> imageGroups.add(imageGroup(image)));
+
+        List<DuplicateMatch> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    List<Entry> cell = cells.get(key(row, col));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry entry : cell) {
+                        if (entry.createdAt.isBefore(cutoff)) {
+                            continue;
+                        }
+                        double distance = distanceMeters(lat, lng, entry.lat, entry.lng);
+                        if (distance > radiusMeters) {
+                            continue;
+                        }
+                        double similarity = signature == null || entry.signature == null ? 0 : similarity(signature, entry.signature);
+                        boolean sameImage = !imageGroups.isEmpty() && entry.images.stream().map(this::imageGroup).anyMatch(imageGroups::contains);
+                        if (similarity >= minSimilarity || sameImage) {
+                            matches.add(new DuplicateMatch(entry.source, entry.id, entry.title, distance, similarity, sameImage, entry.createdAt));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!matches.isEmpty()) {
+            flagged.incrementAndGet();
+            matches.sort(Comparator.comparing(DuplicateMatch::isSameImage).reversed()
+                    .thenComparing(Comparator.comparingDouble(DuplicateMatch::getSimilarity).reversed())
+                    .thenComparingDouble(DuplicateMatch::getDistanceMeters));
+        }
+        return matches.size() > MAX_MATCHES ? new ArrayList<>(matches.subList(0, MAX_MATCHES)) : matches;
+    }
+
+    @Scheduled(fixedDelayString = "${cofix.duplicates.prune-ms:600000}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(windowHours);
+        lock.writeLock().lock();
+        try {
+            Iterator<List<Entry>> cellIterator = cells.values().iterator();
+            while (cellIterator.hasNext()) {
+                List<Entry> cell = cellIterator.next();
+                cell.removeIf(entry -> {
+                    if (entry.createdAt.isBefore(cutoff)) {
+                        byKey.remove(entry.key);
+                        return true;
+                    }
+                    return false;
+                });
+                if (cell.isEmpty()) {
+                    cellIterator.remove();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("indexed", byKey.size());
+            stats.put("cells", cells.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("checks", checks.get());
+        stats.put("flagged", flagged.get());
+        return stats;
+    }
+
+    private int[] signatureOf(String title, String description) {
+        String text = normalizedText(title, description);
+        return text.isEmpty() || text.length() < minTextLength ? null : signature(text);
+    }
+
+    /**
+     * The normalized words of title and description, joined by single spaces.
+     */
+    static String normalizedText(String title, String description) {
+        List<String> words = new ArrayList<>(PostSearchIndex.tokenize(title));
+        words.addAll(PostSearchIndex.tokenize(description));
+        return String.join(" ", words);
+    }
+
+    /**
+     * MinHash signature of the character trigrams of a non-empty normalized text.
+     */
+    static int[] signature(String text) {
+        if (text.length() < SHINGLE_LENGTH) {
+            text = text + " ".repeat(SHINGLE_LENGTH - text.length());
+        }
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int i = 0; i + SHINGLE_LENGTH <= text.length(); i++) {
+            long shingle = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+            for (int k = 0; k < SIGNATURE_SIZE; k++) {
+                int hash = (int) (mix(shingle ^ SEEDS[k]) >>> 33);
+                if (hash < signature[k]) {
+                    signature[k] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int k = 0; k < SIGNATURE_SIZE; k++) {
+            if (a[k] == b[k]) {
+                same++;
+            }
+        }
+        return (double) same / SIGNATURE_SIZE;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void insert(PostSummary post) {
+        // Summaries put posts without coordinates at the default location, where they would all match each other
+        boolean located = post.getLatitude() != Location.DEFAULT_LAT || post.getLongitude() != Location.DEFAULT_LNG;
+        if (located) {
+            List<String> images = new ArrayList<>(post.getImages());
+            if (post.getImage() != null) {
+                images.add(post.getImage());
+            }
+            insert(POST, post.getPostId(), post.getIssueName(), post.getDescription(), images, post.getLatitude(), post.getLongitude(), post.getCreateDate());
+        }
+    }
+
+    private void insert(CommunityIssue issue) {
+        List<String> images = ImageReferences.isReference(issue.getPhotoUrl()) ? List.of(issue.getPhotoUrl()) : List.of();
+        insert(REPORT, issue.getId(), issue.getTitle(), issue.getDescription(), images, issue.getLatitude(), issue.getLongitude(), issue.getCreatedAt());
+    }
+
+    private void insert(String source, Long id, String title, String description, List<String> images, Double lat, Double lng,
+                        LocalDateTime createdAt) {
+        String key = source + ":" + id;
+        remove(key);
+        if (lat == null || lng == null || createdAt == null || createdAt.isBefore(LocalDateTime.now().minusHours(windowHours))) {
+            return;
+        }
+        int[] signature = signatureOf(title, description);
+        if (signature == null && images.isEmpty()) {
+            return;
+        }
+        double cellSize = cellSize();
+        Entry entry = new Entry(key, source, id, title, images, lat, lng, createdAt, signature,
+                key((int) Math.floor(lat / cellSize), (int) Math.floor(lng / cellSize)));
+        byKey.put(key, entry);
+        cells.computeIfAbsent(entry.cell, k -> new ArrayList<>()).add(entry);
+    }
+
+    private void remove(String key) {
+        Entry entry = byKey.remove(key);
+        if (entry == null) {
+            return;
+        }
+        List<Entry> cell = cells.get(entry.cell);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+    }
+
+    private double cellSize() {
+        return Math.max(radiusMeters, 1) / METERS_PER_DEGREE;
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static class Entry {
+        final String key;
+        final String source;
+        final Long id;
+        final String title;
+        final List<String> images;
+        final double lat;
+        final double lng;
+        final LocalDateTime createdAt;
+        final int[] signature;
+        final long cell;
+
+        Entry(String key, String source, Long id, String title, List<String> images, double lat, double lng, LocalDateTime createdAt,
+              int[] signature, long cell) {
+            this.key = key;
+            this.source = source;
+            this.id = id;
+            this.title = title;
+            this.images = images;
+            this.lat = lat;
+            this.lng = lng;
+            this.createdAt = createdAt;
+            this.signature = signature;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.EmailOutboxMessage;
+import com.cofix.cofixBackend.Models.OutboxStatus;
+import com.cofix.cofixBackend.Repos.EmailOutboxRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers queued {@link EmailOutboxMessage}s in the background.
+ * <p>
+ * Every poll claims due messages by pushing their next attempt time out by the lease, then hands them to a
+ * bounded worker pool in batches. A batch goes out over a single SMTP connection. Failed messages are retried
+ * with exponential backoff until {@code max-attempts}, after which they are marked {@link OutboxStatus#FAILED}.
+ * A message whose worker dies mid-send is picked up again once its lease runs out, so delivery is at-least-once.
+ */
+@Service
+@Slf4j
+public class EmailDispatcher {
+
+    @Autowired
+    EmailOutboxRepo outboxRepo;
+    @Autowired
+    JavaMailSender mailSender;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    // Replaced by the application registry; the default keeps the class usable without Spring, as in the tests
+    @Autowired
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Value("${spring.mail.username}")
+    String fromEmail;
+    @Value("${cofix.mail.outbox.workers:4}")
+    int workers;
+    @Value("${cofix.mail.outbox.batch-size:20}")
+    int batchSize;
+    @Value("${cofix.mail.outbox.max-attempts:6}")
+    int maxAttempts;
+    @Value("${cofix.mail.outbox.initial-backoff-ms:5000}")
+    long initialBackoffMs;
+    @Value("${cofix.mail.outbox.max-backoff-ms:600000}")
+    long maxBackoffMs;
+    @Value("${cofix.mail.outbox.lease-ms:120000}")
+    long leaseMs;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(workers), runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("cofix.mail.outbox.queued-batches", executor, pool -> pool.getQueue().size())
+                .description("Claimed batches waiting for a dispatcher worker")
+                .register(meterRegistry);
+        log.info("Email dispatcher started with {} workers, batch size {}", workers, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Email dispatcher did not finish in time, unsent messages will be retried after their lease");
+            executor.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cofix.mail.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        // Only claim what the pool can take right now, the rest stays in the table
+        int freeSlots = executor.getQueue().remainingCapacity() + Math.max(0, workers - executor.getActiveCount());
+        if (freeSlots <= 0) {
+            return;
+        }
+        List<EmailOutboxMessage> claimed;
+        try {
+            claimed = claim(freeSlots * batchSize);
+        } catch (Exception e) {
+            log.error("Failed to claim outbox messages: ", e);
+            return;
+        }
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<EmailOutboxMessage> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            try {
+                executor.execute(() -> sendBatch(batch));
+            } catch (RejectedExecutionException e) {
+                // Left claimed; picked up again when the lease expires
+                log.warn("Email dispatcher pool is full, deferring {} messages", batch.size());
+            }
+        }
+    }
+
+    private List<EmailOutboxMessage> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> due = outboxRepo.findDueForUpdate(now, PageRequest.of(0, limit));
+            LocalDateTime leaseEnd = now.plus(leaseMs, ChronoUnit.MILLIS);
+            due.forEach(message -> message.setNextAttemptAt(leaseEnd));
+            return outboxRepo.saveAll(due);
+        });
+    }
+
+    private void sendBatch(List<EmailOutboxMessage> batch) {
+        try {
+            deliver(batch);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> outboxRepo.saveAll(batch));
+        }
+    }
+
+    /**
+     * Sends the batch over one SMTP connection and updates each message's status, attempts and next attempt time.
+     * Does not persist anything.
+     */
+    void deliver(List<EmailOutboxMessage> batch) {
+        Map<MimeMessage, EmailOutboxMessage> built = new LinkedHashMap<>();
+        for (EmailOutboxMessage message : batch) {
+            try {
+                built.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                recordFailure(message, e);
+            }
+        }
+        if (built.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        Exception batchFailure = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(built.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = new IdentityHashMap<>(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+        String outcome = batchFailure != null ? "error" : failures.isEmpty() ? "success" : "partial";
+        sample.stop(meterRegistry.timer("cofix.mail.send", "outcome", outcome));
+        batchCount.incrementAndGet();
+
+        for (Map.Entry<MimeMessage, EmailOutboxMessage> entry : built.entrySet()) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure != null) {
+                recordFailure(entry.getValue(), failure);
+            } else {
+                recordSuccess(entry.getValue());
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(message.getToEmail());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), true);
+        return mimeMessage;
+    }
+
+    private void recordSuccess(EmailOutboxMessage message) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setStatus(OutboxStatus.SENT);
+        message.setSentDate(LocalDateTime.now());
+        message.setLastError(null);
+        sentCount.incrementAndGet();
+        meterRegistry.counter("cofix.mail.messages", "result", "sent").increment();
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception e) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        String error = String.valueOf(e.getMessage());
+        message.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+            failedCount.incrementAndGet();
+            meterRegistry.counter("cofix.mail.messages", "result", "failed").increment();
+            log.error("Giving up on outbox message {} to {} after {} attempts: {}", message.getMessageId(), message.getToEmail(), attempts, error);
+        } else {
+            message.setNextAttemptAt(LocalDateTime.now().plus(backoffMillis(attempts), ChronoUnit.MILLIS));
+            retryCount.incrementAndGet();
+            meterRegistry.counter("cofix.mail.messages", "result", "retry").increment();
+            log.warn("Outbox message {} to {} failed on attempt {}, will retry: {}", message.getMessageId(), message.getToEmail(), attempts, error);
+        }
+    }
+
+    /**
+     * Exponential backoff after the given number of failed attempts, capped at max-backoff-ms, plus up to 20% jitter
+     * so messages that failed together do not all retry together.
+     */
+    long backoffMillis(int attempts) {
+        long base = initialBackoffMs << Math.min(attempts - 1, 30);
+        long capped = base <= 0 ? maxBackoffMs : Math.min(base, maxBackoffMs);
+        return capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", outboxRepo.countByStatus(OutboxStatus.PENDING));
+        stats.put("failedTotal", outboxRepo.countByStatus(OutboxStatus.FAILED));
+        stats.put("sent", sentCount.get());
+        stats.put("retried", retryCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("batches", batchCount.get());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queuedBatches", executor.getQueue().size());
+        return stats;
+    }
+}
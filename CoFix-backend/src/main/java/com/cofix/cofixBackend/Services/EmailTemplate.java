@@ -0,0 +1,183 @@
+package com.cofix.cofixBackend.Services;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A mail layout parsed once into static UTF-8 byte segments and field slots.
+ * <p>
+ * Placeholders are written as {@code {{fieldName}}}. Every placeholder has to be one of the field names passed to
+ * {@link #compile}, and {@link #render} takes the values in that same order. Values are HTML-escaped and encoded
+ * straight into a per-thread buffer that is reused between renders, so rendering does not build intermediate strings.
+ */
+public final class EmailTemplate {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    // Buffers grown past this by a huge render are dropped instead of being kept by the thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    private static final byte[] AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LT = "&lt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GT = "&gt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUOT = "&quot;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] APOS = "&#39;".getBytes(StandardCharsets.US_ASCII);
+
+    private final List<String> fieldNames;
+    // segments[i] is written before slots[i]; the last segment follows the last slot
+    private final byte[][] segments;
+    private final int[] slots;
+
+    private EmailTemplate(List<String> fieldNames, byte[][] segments, int[] slots) {
+        this.fieldNames = fieldNames;
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    public static EmailTemplate compile(String source, String... fieldNames) {
+        List<String> names = List.of(fieldNames);
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String name = source.substring(open + 2, close).trim();
+            int field = names.indexOf(name);
+            if (field < 0) {
+                throw new IllegalArgumentException("Unknown placeholder '" + name + "', expected one of " + names);
+            }
+            segments.add(source.substring(position, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(field);
+            position = close + 2;
+        }
+        segments.add(source.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new EmailTemplate(names, segments.toArray(new byte[0][]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public static EmailTemplate load(String classpathLocation, String... fieldNames) {
+        try (InputStream in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(StreamUtils.copyToString(in, StandardCharsets.UTF_8), fieldNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load mail template " + classpathLocation, e);
+        }
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Renders the template with one value per field name, in compile order. Null values render as "null".
+     */
+    public String render(Object... values) {
+        Buffer buffer = fill(values);
+        try {
+            return new String(buffer.data, 0, buffer.size, StandardCharsets.UTF_8);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Same as {@link #render} but writes the UTF-8 bytes to {@code out}, for callers that stream many messages.
+     */
+    public void renderTo(OutputStream out, Object... values) throws IOException {
+        Buffer buffer = fill(values);
+        try {
+            out.write(buffer.data, 0, buffer.size);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private Buffer fill(Object[] values) {
+        if (values.length != fieldNames.size()) {
+            throw new IllegalArgumentException("Expected " + fieldNames.size() + " values " + fieldNames + " but got " + values.length);
+        }
+        Buffer buffer = BUFFERS.get();
+        buffer.size = 0;
+        for (int i = 0; i < slots.length; i++) {
+            buffer.write(segments[i]);
+            Object value = values[slots[i]];
+            buffer.writeEscaped(value instanceof CharSequence ? (CharSequence) value : String.valueOf(value));
+        }
+        buffer.write(segments[slots.length]);
+        return buffer;
+    }
+
+    private static final class Buffer {
+        byte[] data = new byte[INITIAL_BUFFER_SIZE];
+        int size;
+
+        void release() {
+            if (data.length > MAX_RETAINED_BUFFER_SIZE) {
+                data = new byte[INITIAL_BUFFER_SIZE];
+            }
+            size = 0;
+        }
+
+        void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeEscaped(CharSequence text) {
+            int length = text.length();
+            // Worst case is 6 bytes per char ("&quot;"), checked once instead of per char
+            ensure(length * 6);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> write(AMP);
+                    case '<' -> write(LT);
+                    case '>' -> write(GT);
+                    case '"' -> write(QUOT);
+                    case '\'' -> write(APOS);
+                    default -> {
+                        if (c < 0x80) {
+                            data[size++] = (byte) c;
+                        } else if (c < 0x800) {
+                            data[size++] = (byte) (0xC0 | (c >> 6));
+                            data[size++] = (byte) (0x80 | (c & 0x3F));
+                        } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                            int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                            data[size++] = (byte) (0xF0 | (codePoint >> 18));
+                            data[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                            data[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                            data[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                        } else if (Character.isSurrogate(c)) {
+                            data[size++] = '?';
+                        } else {
+                            data[size++] = (byte) (0xE0 | (c >> 12));
+                            data[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                            data[size++] = (byte) (0x80 | (c & 0x3F));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
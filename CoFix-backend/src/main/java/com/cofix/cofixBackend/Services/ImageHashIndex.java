@@ -0,0 +1,331 @@
+package com.cofix.cofixBackend.Services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Perceptual hashes of stored images, so a photo that is re-uploaded after being re-encoded, resized or
+ * recompressed can be recognised as a copy of one already in the {@link BlobStore}. Every upload is still stored
+ * as its own blob, since a near match is not proof of the same photo; instead each image is put in the group of
+ * the nearest stored image, and {@link #groupOf} tells whether two blobs look alike.
+ * <p>
+ * The hash is a 64-bit DCT hash: the image is reduced to a 32x32 grid of grey cells and each bit says whether one
+ * of the 8x8 lowest-frequency cosine coefficients is above their median, which survives re-encoding and resizing
+ * far better than comparing pixels. Hashes within {@code max-distance} bits (at most 7) are looked up with
+ * multi-index hashing: the 64 bits are split into max-distance + 1 chunks, each with its own table, and two hashes
+ * that differ in at most max-distance bits must agree exactly on at least one chunk. Images with almost no
+ * contrast, such as a blank or black frame, are not hashed: all their coefficients sit at the median and they
+ * would all share one hash. Each hash and group is also kept next to its blob, so the tables are reloaded at
+ * startup without decoding any images.
+ */
+@Service
+@Slf4j
+public class ImageHashIndex {
+
+    static final String SIDECAR_SUFFIX = "phash";
+
+    // Decoding is subsampled down to about this many pixels on the short side
+    private static final int DECODE_SIZE = 128;
+    // Larger images are not hashed rather than decoded, even subsampled
+    private static final long MAX_PIXELS = 100_000_000L;
+    private static final int GRID = 32;
+    private static final int FREQUENCIES = 8;
+    // Standard deviation of the grid's brightness (0-255) below which an image is treated as flat
+    private static final double MIN_CONTRAST = 2.0;
+    private static final double[][] COSINES = new double[FREQUENCIES][GRID];
+
+    static {
+        for (int u = 0; u < FREQUENCIES; u++) {
+            for (int x = 0; x < GRID; x++) {
+                COSINES[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * GRID));
+            }
+        }
+    }
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Value("${cofix.images.dedup.enabled:true}")
+    boolean enabled;
+    @Value("${cofix.images.dedup.max-distance:4}")
+    int maxDistance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> byBlob = new HashMap<>();
+    private List<Map<Long, List<Entry>>> tables;
+    private int chunkBits;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong linked = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // Copies of one picture are a few bits apart, different pictures usually more than 20
+        maxDistance = Math.max(0, Math.min(maxDistance, 7));
+        int chunks = maxDistance + 1;
+        chunkBits = (64 + chunks - 1) / chunks;
+        tables = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        try {
+            blobStore.forEachSidecar(SIDECAR_SUFFIX, path -> {
+                String name = path.getFileName().toString();
+                String blob = name.substring(0, name.length() - SIDECAR_SUFFIX.length() - 1);
+                try {
+                    // "<hash>" or "<hash> <group>"; a blob without a group is the first of its own
+                    String[] fields = Files.readString(path).trim().split(" ");
+                    entries.add(new Entry(blob, Long.parseUnsignedLong(fields[0], 16), fields.length > 1 ? fields[1] : blob));
+                } catch (IOException | NumberFormatException e) {
+                    log.warn("Skipping unreadable image hash {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.error("Failed to load image hashes: ", e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            byBlob.clear();
+            tables.forEach(Map::clear);
+            entries.forEach(this::insert);
+            log.info("Image hash index built with {} images in {} ms", byBlob.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Perceptual hash of an image file, or null if dedup is disabled or ImageIO can't decode the file.
+     */
+    public Long hash(Path file) throws IOException {
+        return enabled ? hashFile(file) : null;
+    }
+
+    /**
+     * Records the hash of a stored blob, both in the index and next to the blob, and returns the group it joins:
+     * that of the nearest indexed image within {@code max-distance} bits, or a new one named after the blob.
+     */
+    public String add(String blob, long hash) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Entry known = byBlob.get(blob);
+            if (known != null) {
+                return known.group;
+            }
+            Entry nearest = nearest(hash);
+            String group = nearest == null ? blob : nearest.group;
+            Files.writeString(blobStore.sidecarPathFor(blob, SIDECAR_SUFFIX),
+                    group.equals(blob) ? String.format("%016x", hash) : String.format("%016x %s", hash, group));
+            insert(new Entry(blob, hash, group));
+            if (nearest != null) {
+                linked.incrementAndGet();
+            }
+            return group;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The group of near-identical images a blob belongs to. Blobs that were never hashed, such as flat images or
+     * files ImageIO can't decode, are a group of their own.
+     */
+    public String groupOf(String blob) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byBlob.get(blob);
+            return entry == null ? blob : entry.group;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("images", byBlob.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("maxDistance", maxDistance);
+        stats.put("lookups", lookups.get());
+        stats.put("linked", linked.get());
+        return stats;
+    }
+
+    // Callers hold the write lock
+    private Entry nearest(long hash) {
+        lookups.incrementAndGet();
+        Entry best = null;
+        int bestDistance = maxDistance + 1;
+        for (int i = 0; i < tables.size(); i++) {
+            List<Entry> candidates = tables.get(i).get(chunk(hash, i));
+            if (candidates == null) {
+                continue;
+            }
+            for (Entry candidate : candidates) {
+                int distance = Long.bitCount(candidate.hash ^ hash);
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    static Long hashFile(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    return null;
+                }
+                // The hash only needs a 32x32 grid, so most of the pixels can be skipped while decoding
+                int step = Math.max(1, Math.min(width, height) / DECODE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return perceptualHash(reader.read(0, param));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not decode {} for hashing: {}", file, e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * DCT hash of the image, or null if it has too little contrast to tell it apart from other flat images.
+     */
+    static Long perceptualHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // Mean brightness of a 32x32 grid of boxes, which averages out scaling and compression noise
+        double[] cells = new double[GRID * GRID];
+        int[] counts = new int[GRID * GRID];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = y * GRID / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cell = cellY * GRID + x * GRID / width;
+                cells[cell] += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                counts[cell]++;
+            }
+        }
+        double total = 0;
+        double totalOfSquares = 0;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = counts[i] == 0 ? 0 : cells[i] / counts[i];
+            total += cells[i];
+            totalOfSquares += cells[i] * cells[i];
+        }
+        double mean = total / cells.length;
+        if (Math.sqrt(Math.max(0, totalOfSquares / cells.length - mean * mean)) < MIN_CONTRAST) {
+            return null;
+        }
+        // Only the lowest 8x8 frequencies of the 2D DCT are needed: along rows first, then down the columns
+        double[][] rows = new double[GRID][FREQUENCIES];
+        for (int y = 0; y < GRID; y++) {
+            for (int v = 0; v < FREQUENCIES; v++) {
+                double sum = 0;
+                for (int x = 0; x < GRID; x++) {
+                    sum += cells[y * GRID + x] * COSINES[v][x];
+                }
+                rows[y][v] = sum;
+            }
+        }
+        double[] coefficients = new double[FREQUENCIES * FREQUENCIES];
+        for (int u = 0; u < FREQUENCIES; u++) {
+            for (int v = 0; v < FREQUENCIES; v++) {
+                double sum = 0;
+                for (int y = 0; y < GRID; y++) {
+                    sum += rows[y][v] * COSINES[u][y];
+                }
+                coefficients[u * FREQUENCIES + v] = sum;
+            }
+        }
+        // The DC term is the overall brightness and would skew the median
+        double[] sorted = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+        long hash = 0;
+        for (double coefficient : coefficients) {
+            hash = (hash << 1) | (coefficient > median ? 1 : 0);
+        }
+        return hash;
+    }
+
+    private void insert(Entry entry) {
+        if (byBlob.putIfAbsent(entry.blob, entry) != null) {
+            return;
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            tables.get(i).computeIfAbsent(chunk(entry.hash, i), k -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private long chunk(long hash, int index) {
+        int shift = index * chunkBits;
+        int bits = Math.min(chunkBits, 64 - shift);
+        long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        return (hash >>> shift) & mask;
+    }
+
+    private static class Entry {
+        final String blob;
+        final long hash;
+        final String group;
+
+        Entry(String blob, long hash, String group) {
+            this.blob = blob;
+            this.hash = hash;
+            this.group = group;
+        }
+    }
+}
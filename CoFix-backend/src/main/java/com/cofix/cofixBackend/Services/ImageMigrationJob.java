@@ -0,0 +1,142 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.ImagesMigratedEvent;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off job that moves images still stored inline in the posts table into the {@link BlobStore}.
+ * Posts are walked in postId order, one batch per transaction, so only a single batch of image data is in
+ * memory at a time. Rows that already hold references are left alone, so the job can be rerun safely.
+ * <p>
+ * List queries only return images that are blob references, so until a post is migrated its images are missing
+ * from the lists. The job therefore runs on startup by default whenever any post still has an inline image, before
+ * the in-memory indexes load their summaries. A run started later from the admin endpoint makes those indexes
+ * reload once it is done.
+ */
+@Service
+@Slf4j
+public class ImageMigrationJob {
+
+    @Autowired
+    PostsRepo postsRepo;
+    @Autowired
+    PostImageService postImageService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    PostVersions postVersions;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${cofix.blobs.migration.batch-size:50}")
+    int batchSize;
+    @Value("${cofix.blobs.migration.on-startup:true}")
+    boolean onStartup;
+
+    private TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong postsScanned = new AtomicLong();
+    private final AtomicLong postsUpdated = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs ahead of the index rebuilds, which listen for the same event, and on the same thread so they wait for it
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateOnStartup() {
+        if (!onStartup) {
+            return;
+        }
+        long pending = postsRepo.countPostsWithInlineImages();
+        if (pending > 0 && running.compareAndSet(false, true)) {
+            log.info("Migrating inline images of {} posts before loading the indexes", pending);
+            run();
+        }
+    }
+
+    /**
+     * Starts the migration on a background thread. Returns false if it is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            if (run() > 0) {
+                eventPublisher.publishEvent(new ImagesMigratedEvent());
+            }
+        }, "image-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    // Returns how many posts were updated; the caller must have set running
+    private long run() {
+        long start = System.currentTimeMillis();
+        postsScanned.set(0);
+        postsUpdated.set(0);
+        try {
+            Long lastPostId = Long.MIN_VALUE;
+            while (lastPostId != null) {
+                Long after = lastPostId;
+                long updatedBefore = postsUpdated.get();
+                lastPostId = transactionTemplate.execute(status -> migrateBatch(after));
+                if (postsUpdated.get() != updatedBefore) {
+                    // Image references in the lists changed without any post events
+                    postVersions.invalidateAll();
+                }
+            }
+            log.info("Image migration finished: {} posts scanned, {} updated in {} ms", postsScanned.get(), postsUpdated.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Image migration failed after {} posts: ", postsScanned.get(), e);
+        } finally {
+            running.set(false);
+        }
+        return postsUpdated.get();
+    }
+
+    // Returns the last postId of the batch, or null when there are no more posts
+    private Long migrateBatch(Long afterPostId) {
+        List<MyPost> posts = postsRepo.findByPostIdGreaterThanOrderByPostIdAsc(afterPostId, PageRequest.of(0, batchSize));
+        for (MyPost post : posts) {
+            // Managed entities, so changes are flushed when the transaction commits
+            if (postImageService.externalizeImages(post)) {
+                postsUpdated.incrementAndGet();
+            }
+        }
+        postsScanned.addAndGet(posts.size());
+        return posts.size() < batchSize ? null : posts.get(posts.size() - 1).getPostId();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("postsScanned", postsScanned.get());
+        stats.put("postsUpdated", postsUpdated.get());
+        return stats;
+    }
+}
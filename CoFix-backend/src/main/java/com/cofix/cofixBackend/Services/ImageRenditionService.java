@@ -0,0 +1,195 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.ImageRendition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageRendition}s of stored images on a small background pool, so uploads return as soon
+ * as the original is on disk. Images ImageIO cannot decode simply get no renditions and are served as uploaded, and
+ * so do images with more than {@code max-pixels} pixels, which are checked from the header before anything is
+ * decoded: a small file can declare huge dimensions and would otherwise need gigabytes of heap to decode.
+ */
+@Service
+@Slf4j
+public class ImageRenditionService {
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Value("${cofix.images.rendition.workers:2}")
+    int workers;
+    @Value("${cofix.images.rendition.queue-capacity:200}")
+    int queueCapacity;
+    @Value("${cofix.images.rendition.jpeg-quality:0.8}")
+    float jpegQuality;
+    @Value("${cofix.images.rendition.max-pixels:40000000}")
+    long maxPixels;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-rendition-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues rendition generation for a blob. Does nothing if the blob is already queued; if the queue is full
+     * the renditions are generated the next time one is requested.
+     */
+    public void schedule(String hash) {
+        if (!inFlight.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+            log.warn("Rendition queue is full, skipping {} for now", hash);
+        }
+    }
+
+    void generate(String hash) {
+        Optional<Path> original = blobStore.find(hash);
+        if (original.isEmpty()) {
+            return;
+        }
+        try {
+            BufferedImage source = null;
+            for (ImageRendition rendition : ImageRendition.values()) {
+                if (blobStore.findRendition(hash, rendition).isPresent()) {
+                    continue;
+                }
+                if (source == null) {
+                    source = read(hash, original.get());
+                    if (source == null) {
+                        return;
+                    }
+                }
+                blobStore.putRendition(hash, rendition, encodeJpeg(scale(source, rendition.getMaxSize())));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to generate renditions for blob {}: ", hash, e);
+        }
+    }
+
+    // Returns null if there is no reader for the image or it has too many pixels
+    private BufferedImage read(String hash, Path path) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.debug("No ImageIO reader for blob {}, serving it without renditions", hash);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("Blob {} is {}x{} pixels, over the limit of {}, serving it without renditions",
+                            hash, reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fits the image into maxSize x maxSize. Large reductions are done in halving steps, which keeps bilinear
+     * filtering from skipping pixels and aliasing.
+     */
+    static BufferedImage scale(BufferedImage source, int maxSize) {
+        int targetWidth = source.getWidth();
+        int targetHeight = source.getHeight();
+        double factor = Math.min(1.0, (double) maxSize / Math.max(targetWidth, targetHeight));
+        targetWidth = Math.max(1, (int) Math.round(targetWidth * factor));
+        targetHeight = Math.max(1, (int) Math.round(targetHeight * factor));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (factor == 1.0) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha, flatten transparent areas onto white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
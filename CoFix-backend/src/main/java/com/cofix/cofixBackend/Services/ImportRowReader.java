@@ -0,0 +1,213 @@
+package com.cofix.cofixBackend.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an import stream one row at a time, so only the current row is ever held in memory.
+ * <p>
+ * A row that cannot be parsed comes back with an {@link Row#getError() error} instead of values and reading
+ * carries on with the next one. Field names are matched case-insensitively.
+ */
+public abstract class ImportRowReader {
+
+    /**
+     * One parsed row. {@code line} is the line the row starts on, counting the CSV header.
+     */
+    public static final class Row {
+        private final long line;
+        private final Map<String, String> values;
+        private final String error;
+
+        Row(long line, Map<String, String> values, String error) {
+            this.line = line;
+            this.values = values;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String get(String field) {
+            return values.get(field.toLowerCase());
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    protected final BufferedReader reader;
+    protected long line;
+
+    protected ImportRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next row, or null at the end of the stream. Blank lines are skipped.
+     */
+    public abstract Row next() throws IOException;
+
+    /**
+     * CSV as written by spreadsheets (RFC 4180): the first record names the columns, fields may be quoted and
+     * quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    public static ImportRowReader csv(BufferedReader reader) {
+        return new Csv(reader);
+    }
+
+    /**
+     * Newline delimited JSON: one object per line.
+     */
+    public static ImportRowReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+
+    private static final class Csv extends ImportRowReader {
+        // An unbalanced quote would otherwise pull the rest of the file into one field
+        private static final int MAX_QUOTED_FIELD_CHARS = 16 * 1024 * 1024;
+
+        private List<String> header;
+
+        Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                // Spreadsheets like to start UTF-8 exports with a byte order mark
+                header = names.stream().map(name -> name.replace("\uFEFF", "").trim().toLowerCase()).toList();
+            }
+            while (true) {
+                long start = line + 1;
+                List<String> fields;
+                try {
+                    fields = readRecord();
+                } catch (MalformedRecordException e) {
+                    return new Row(start, Map.of(), e.getMessage());
+                }
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (fields.size() != header.size()) {
+                    return new Row(start, Map.of(), "Expected " + header.size() + " fields but found " + fields.size());
+                }
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    values.put(header.get(i), fields.get(i));
+                }
+                return new Row(start, values, null);
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // A quoted field continues on the next line
+                    text = reader.readLine();
+                    if (text == null || field.length() > MAX_QUOTED_FIELD_CHARS) {
+                        throw new MalformedRecordException("Unterminated quoted field");
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Ndjson extends ImportRowReader {
+        private final ObjectMapper objectMapper;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                return new Row(line, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Row(line, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            node.fields().forEachRemaining(entry -> {
+                JsonNode value = entry.getValue();
+                if (!value.isNull()) {
+                    values.put(entry.getKey().toLowerCase(), value.isValueNode() ? value.asText() : value.toString());
+                }
+            });
+            return new Row(line, values, null);
+        }
+    }
+
+    private static final class MalformedRecordException extends IOException {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
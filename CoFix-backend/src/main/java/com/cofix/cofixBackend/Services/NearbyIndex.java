@@ -0,0 +1,372 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.NearbyIssue;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.CommunityIssuesRepo;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The open issues nearest to a position, for the "reported near me" view.
+ * <p>
+ * Community issue posts and reported issues whose status is not one of {@code closed-statuses} are kept as points
+ * on the unit sphere in an octree whose leaves split past {@value #LEAF_CAPACITY} points and merge back when
+ * deletes empty them. The straight-line (chord) distance between two points on the sphere grows with their
+ * great-circle distance, so a best-first walk that visits boxes in order of their distance from the query point
+ * finds the exact K nearest by great-circle distance after looking at a logarithmic number of boxes, with no
+ * special cases at the poles or the antimeridian. Like the other indexes it is loaded once the application is
+ * ready and then follows the post and issue events; an issue that is saved with a closed status drops out.
+ */
+@Service
+@Slf4j
+public class NearbyIndex {
+
+    public static final int DEFAULT_RESULT_LIMIT = 20;
+    public static final int MAX_RESULT_LIMIT = 200;
+
+    static final int LEAF_CAPACITY = 16;
+    // About a meter across; points closer than that stay in one leaf however many there are
+    static final int MAX_DEPTH = 24;
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    @Value("${cofix.nearby.closed-statuses:resolved,closed}")
+    Set<String> closedStatuses;
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    @Autowired
+    CommunityIssuesRepo communityIssuesRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node(0, 0, 0, 1);
+    // "post:<postId>" or "report:<id>" -> entry
+    private final Map<String, Entry> byKey = new HashMap<>();
+    private final AtomicLong queries = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<PostSummary> posts = postsRepo.findAllSummaries();
+        List<CommunityIssue> issues = communityIssuesRepo.findAll();
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            root = new Node(0, 0, 0, 1);
+            byKey.clear();
+            posts.forEach(this::add);
+            issues.forEach(this::add);
+            log.info("Nearby index built with {} open issues in {} ms", byKey.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            add(event.getPost());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(DuplicateDetector.POST + ":" + event.getPost().getPostId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueSaved(IssueSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            add(event.getIssue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} open issues nearest to (lat, lng), closest first, leaving out any farther than
+     * {@code radiusMeters} when that is given.
+     */
+    public List<NearbyIssue> findNearest(double lat, double lng, int limit, Double radiusMeters) {
+        queries.incrementAndGet();
+        double[] point = toPoint(lat, lng);
+        // Past half the circumference every point on the sphere is in range
+        double bound = radiusMeters == null || radiusMeters >= Math.PI * EARTH_RADIUS_METERS ? Double.POSITIVE_INFINITY
+                : square(2 * Math.sin(Math.max(radiusMeters, 0) / (2 * EARTH_RADIUS_METERS)));
+        // Farthest of the best found so far on top, so it is the one replaced by a nearer entry
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance).reversed());
+        PriorityQueue<Candidate> boxes = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance));
+        lock.readLock().lock();
+        try {
+            boxes.add(new Candidate(root, 0));
+            while (!boxes.isEmpty()) {
+                Candidate next = boxes.poll();
+                double threshold = best.size() < limit ? bound : best.peek().distance;
+                if (next.distance > threshold) {
+                    // Boxes come out nearest first, so no remaining box can hold anything nearer
+                    break;
+                }
+                Node node = (Node) next.value;
+                if (node.children == null) {
+                    for (Entry entry : node.entries) {
+                        double distance = squaredDistance(point, entry.x, entry.y, entry.z);
+                        if (best.size() < limit ? distance <= bound : distance < best.peek().distance) {
+                            best.add(new Candidate(entry, distance));
+                            if (best.size() > limit) {
+                                best.poll();
+                            }
+                        }
+                    }
+                } else {
+                    for (Node child : node.children) {
+                        if (child.count > 0) {
+                            double distance = child.squaredDistance(point);
+                            if (distance <= threshold) {
+                                boxes.add(new Candidate(child, distance));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<NearbyIssue> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            Entry entry = (Entry) candidate.value;
+            double meters = 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(candidate.distance) / 2));
+            result.add(0, new NearbyIssue(entry.source, entry.id, entry.title, entry.category, entry.status, entry.lat, entry.lng,
+                    meters, entry.createdAt));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("indexed", byKey.size());
+            stats.put("depth", root.depth());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("queries", queries.get());
+        return stats;
+    }
+
+    private void add(PostSummary post) {
+        String key = DuplicateDetector.POST + ":" + post.getPostId();
+        remove(key);
+        // Summaries put posts without coordinates at the default location, which would be near nobody in particular
+        boolean located = post.getLatitude() != Location.DEFAULT_LAT || post.getLongitude() != Location.DEFAULT_LNG;
+        if (post.getBenefitType() == BenefitTypes.COMMUNITY_ISSUE && located) {
+            insert(new Entry(key, DuplicateDetector.POST, post.getPostId(), post.getIssueName(), null, null,
+                    post.getLatitude(), post.getLongitude(), post.getCreateDate()));
+        }
+    }
+
+    private void add(CommunityIssue issue) {
+        String key = DuplicateDetector.REPORT + ":" + issue.getId();
+        remove(key);
+        boolean open = issue.getStatus() == null || !closedStatuses.contains(issue.getStatus().trim().toLowerCase(Locale.ROOT));
+        if (open && issue.getLatitude() != null && issue.getLongitude() != null) {
+            insert(new Entry(key, DuplicateDetector.REPORT, issue.getId(), issue.getTitle(), issue.getCategory(), issue.getStatus(),
+                    issue.getLatitude(), issue.getLongitude(), issue.getCreatedAt()));
+        }
+    }
+
+    private void insert(Entry entry) {
+        byKey.put(entry.key, entry);
+        root.insert(entry, 0);
+    }
+
+    private void remove(String key) {
+        Entry entry = byKey.remove(key);
+        if (entry != null) {
+            root.remove(entry);
+        }
+    }
+
+    static double[] toPoint(double lat, double lng) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lng);
+        return new double[] {Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double squaredDistance(double[] point, double x, double y, double z) {
+        return square(point[0] - x) + square(point[1] - y) + square(point[2] - z);
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    /**
+     * A cube of the octree: a leaf holding its entries, or eight child cubes of half the size.
+     */
+    private static class Node {
+        final double cx;
+        final double cy;
+        final double cz;
+        final double half;
+        List<Entry> entries = new ArrayList<>();
+        Node[] children;
+        int count;
+
+        Node(double cx, double cy, double cz, double half) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.half = half;
+        }
+
+        void insert(Entry entry, int depth) {
+            count++;
+            if (children != null) {
+                children[childIndex(entry)].insert(entry, depth + 1);
+                return;
+            }
+            entries.add(entry);
+            if (entries.size() > LEAF_CAPACITY && depth < MAX_DEPTH) {
+                split(depth);
+            }
+        }
+
+        boolean remove(Entry entry) {
+            boolean removed = children == null ? entries.remove(entry) : children[childIndex(entry)].remove(entry);
+            if (removed) {
+                count--;
+                if (children != null && count <= LEAF_CAPACITY) {
+                    // Few enough left to be one leaf again
+                    entries = new ArrayList<>(count);
+                    collect(entries);
+                    children = null;
+                }
+            }
+            return removed;
+        }
+
+        private void split(int depth) {
+            double quarter = half / 2;
+            children = new Node[8];
+            for (int i = 0; i < 8; i++) {
+                children[i] = new Node(cx + ((i & 1) != 0 ? quarter : -quarter), cy + ((i & 2) != 0 ? quarter : -quarter),
+                        cz + ((i & 4) != 0 ? quarter : -quarter), quarter);
+            }
+            List<Entry> moved = entries;
+            entries = null;
+            for (Entry entry : moved) {
+                children[childIndex(entry)].insert(entry, depth + 1);
+            }
+        }
+
+        private void collect(List<Entry> into) {
+            if (children == null) {
+                into.addAll(entries);
+            } else {
+                for (Node child : children) {
+                    child.collect(into);
+                }
+            }
+        }
+
+        private int childIndex(Entry entry) {
+            return (entry.x >= cx ? 1 : 0) | (entry.y >= cy ? 2 : 0) | (entry.z >= cz ? 4 : 0);
+        }
+
+        // Squared distance from the point to the nearest point of the cube, zero inside it
+        double squaredDistance(double[] point) {
+            return square(Math.max(0, Math.abs(point[0] - cx) - half))
+                    + square(Math.max(0, Math.abs(point[1] - cy) - half))
+                    + square(Math.max(0, Math.abs(point[2] - cz) - half));
+        }
+
+        int depth() {
+            int depth = 0;
+            if (children != null) {
+                for (Node child : children) {
+                    depth = Math.max(depth, child.depth() + 1);
+                }
+            }
+            return depth;
+        }
+    }
+
+    private static class Entry {
+        final String key;
+        final String source;
+        final Long id;
+        final String title;
+        final String category;
+        final String status;
+        final double lat;
+        final double lng;
+        final LocalDateTime createdAt;
+        final double x;
+        final double y;
+        final double z;
+
+        Entry(String key, String source, Long id, String title, String category, String status, double lat, double lng,
+              LocalDateTime createdAt) {
+            this.key = key;
+            this.source = source;
+            this.id = id;
+            this.title = title;
+            this.category = category;
+            this.status = status;
+            this.lat = lat;
+            this.lng = lng;
+            this.createdAt = createdAt;
+            double[] point = toPoint(lat, lng);
+            this.x = point[0];
+            this.y = point[1];
+            this.z = point[2];
+        }
+    }
+
+    // A node or entry waiting in one of the search queues, with its squared chord distance from the query point
+    private static class Candidate {
+        final Object value;
+        final double distance;
+
+        Candidate(Object value, double distance) {
+            this.value = value;
+            this.distance = distance;
+        }
+    }
+}
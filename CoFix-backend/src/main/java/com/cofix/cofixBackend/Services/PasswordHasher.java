@@ -0,0 +1,148 @@
+package com.cofix.cofixBackend.Services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated pool so a login burst can't tie up request threads.
+ * <p>
+ * The pool has one thread per core by default and a bounded queue. When both are full, new work is refused
+ * immediately with {@link PasswordHasherBusyException} rather than queueing behind seconds of hashing, so callers
+ * can shed load. The BCrypt cost comes from {@code cofix.auth.bcrypt.strength}; {@link #needsRehash(String)} tells
+ * whether a stored hash was made with a different cost.
+ */
+@Service
+@Slf4j
+public class PasswordHasher {
+
+    @Value("${cofix.auth.bcrypt.strength:10}")
+    int strength;
+    // 0 means one worker per available core
+    @Value("${cofix.auth.bcrypt.workers:0}")
+    int workers;
+    // 0 means four queued tasks per worker
+    @Value("${cofix.auth.bcrypt.queue-capacity:0}")
+    int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        int capacity = queueCapacity > 0 ? queueCapacity : threads * 4;
+        encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hasher started with {} workers, queue capacity {}, BCrypt strength {}", threads, capacity, strength);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool. Throws {@link PasswordHasherBusyException} straight away when the pool
+     * is saturated.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    completedCount.incrementAndGet();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new PasswordHasherBusyException();
+        }
+    }
+
+    /**
+     * Hashes {@code rawPassword} on the pool and waits for the result.
+     */
+    public String encode(String rawPassword) {
+        try {
+            return submit(() -> hash(rawPassword)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Hashes on the calling thread. Only meant for code already running on the pool or at startup.
+     */
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Verifies on the calling thread. Only meant for code already running on the pool.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return encodedPassword != null && encoder.matches(rawPassword, encodedPassword);
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        Integer cost = costOf(encodedPassword);
+        return cost != null && cost != strength;
+    }
+
+    // BCrypt hashes look like $2a$10$<salt+hash>; the two digits after the version are the cost
+    static Integer costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return null;
+        }
+        int start = encodedPassword.indexOf('$', 1) + 1;
+        if (start <= 0 || start + 2 >= encodedPassword.length() || encodedPassword.charAt(start + 2) != '$') {
+            return null;
+        }
+        char tens = encodedPassword.charAt(start);
+        char ones = encodedPassword.charAt(start + 1);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return null;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("workers", executor.getMaximumPoolSize());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", completedCount.get());
+        stats.put("rejected", rejectedCount.get());
+        return stats;
+    }
+}
@@ -0,0 +1,11 @@
+package com.cofix.cofixBackend.Services;
+
+/**
+ * Thrown when the password hashing pool and its queue are full and a request should be retried later.
+ */
+public class PasswordHasherBusyException extends RuntimeException {
+
+    public PasswordHasherBusyException() {
+        super("Password hashing pool is saturated");
+    }
+}
@@ -0,0 +1,200 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.MarkerCluster;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Marker clusters for every map zoom level up to {@link #MAX_ZOOM}, kept as running sums per grid cell.
+ * At zoom z a cell spans 1/{@link #CELLS_PER_TILE} of a 360/2^z degree map tile, so the number of clusters
+ * returned for a viewport depends on the screen size and not on how many posts exist. A viewport much larger than
+ * a screen at the requested zoom is answered from a coarser tier, so a response never spans more than
+ * {@value #MAX_CELLS_ACROSS} cells in either direction.
+ * Like {@link PostSpatialIndex} it is loaded once on startup and then follows the post events.
+ */
+@Service
+@Slf4j
+public class PostClusterIndex {
+
+    public static final int MAX_ZOOM = 18;
+    public static final int CELLS_PER_TILE = 4;
+    // A full-HD screen is about 8 tiles, or 32 cells, wide
+    public static final int MAX_CELLS_ACROSS = 64;
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // one map of cell key -> aggregate per zoom level
+    private final List<Map<Long, Cell>> tiers = new ArrayList<>();
+    private final Map<Long, PostSummary> byPostId = new HashMap<>();
+
+    public PostClusterIndex() {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            tiers.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            tiers.forEach(Map::clear);
+            byPostId.clear();
+            for (PostSummary post : postsRepo.findAllSummaries()) {
+                apply(post, 1);
+            }
+            log.info("Cluster index built with {} posts in {} ms", byPostId.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event.getPost(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            PostSummary indexed = byPostId.get(event.getPost().getPostId());
+            if (indexed != null) {
+                apply(indexed, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters whose cell overlaps the viewport at the given zoom. Zoom levels above {@link #MAX_ZOOM} use the
+     * finest tier, and a viewport too large for the zoom uses a coarser one. A box with minLng greater than maxLng
+     * is taken to cross the antimeridian.
+     */
+    public List<MarkerCluster> findClusters(double minLat, double maxLat, double minLng, double maxLng, int zoom) {
+        double span = Math.max(maxLat - minLat, minLng > maxLng ? maxLng - minLng + 360 : maxLng - minLng);
+        int tier = Math.max(0, Math.min(zoom, MAX_ZOOM));
+        while (tier > 0 && span / cellSize(tier) > MAX_CELLS_ACROSS) {
+            tier--;
+        }
+        double size = cellSize(tier);
+        List<MarkerCluster> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = tiers.get(tier);
+            if (minLng > maxLng) {
+                collect(cells, size, minLat, maxLat, minLng, 180, result);
+                collect(cells, size, minLat, maxLat, -180, maxLng, result);
+            } else {
+                collect(cells, size, minLat, maxLat, minLng, maxLng, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void collect(Map<Long, Cell> cells, double size, double minLat, double maxLat, double minLng, double maxLng, List<MarkerCluster> result) {
+        int minRow = (int) Math.floor(minLat / size);
+        int maxRow = (int) Math.floor(maxLat / size);
+        int minCol = (int) Math.floor(minLng / size);
+        int maxCol = (int) Math.floor(maxLng / size);
+        long rangeCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        if (rangeCells <= cells.size()) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Cell cell = cells.get(key(row, col));
+                    if (cell != null) {
+                        result.add(cell.toCluster());
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int row = (int) (entry.getKey() >> 32);
+                int col = (int) (long) entry.getKey();
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    result.add(entry.getValue().toCluster());
+                }
+            }
+        }
+    }
+
+    // Adds (sign = 1) or removes (sign = -1) one post from every tier
+    private void apply(PostSummary post, int sign) {
+        if (sign > 0) {
+            PostSummary previous = byPostId.put(post.getPostId(), post);
+            if (previous != null) {
+                apply(previous, -1);
+                byPostId.put(post.getPostId(), post);
+            }
+        } else {
+            byPostId.remove(post.getPostId());
+        }
+        double lat = post.getLatitude();
+        double lng = post.getLongitude();
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            double size = cellSize(zoom);
+            long key = key((int) Math.floor(lat / size), (int) Math.floor(lng / size));
+            Map<Long, Cell> cells = tiers.get(zoom);
+            Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+            cell.count += sign;
+            cell.sumLat += sign * lat;
+            cell.sumLng += sign * lng;
+            cell.byBenefitType[post.getBenefitType().ordinal()] += sign;
+            if (cell.count == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    static double cellSize(int zoom) {
+        return 360.0 / (1L << zoom) / CELLS_PER_TILE;
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static class Cell {
+        int count;
+        double sumLat;
+        double sumLng;
+        final int[] byBenefitType = new int[BenefitTypes.values().length];
+
+        MarkerCluster toCluster() {
+            Map<BenefitTypes, Integer> breakdown = new EnumMap<>(BenefitTypes.class);
+            for (BenefitTypes type : BenefitTypes.values()) {
+                if (byBenefitType[type.ordinal()] > 0) {
+                    breakdown.put(type, byBenefitType[type.ordinal()]);
+                }
+            }
+            return new MarkerCluster(sumLat / count, sumLng / count, count, breakdown);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes posts to an output stream as NDJSON or CSV straight off a database cursor, one row at a time, so heap use
+ * is the same for ten posts or ten million. Image columns carry blob references only, like the list endpoints.
+ */
+@Service
+@Slf4j
+public class PostExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    static final List<String> COLUMNS = List.of("postId", "email", "benefitType", "issueName", "schemeName",
+            "description", "activityDescription", "comment", "latitude", "longitude", "createDate", "image");
+
+    @Autowired
+    PostsRepo postsRepo;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * Writes every post matching {@code filter} to {@code out} and returns how many were written. {@code out} is
+     * flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(PostFilter filter, String format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        try (Stream<PostSummary> posts = stream(filter)) {
+            Iterator<PostSummary> iterator = posts.iterator();
+            if (CSV.equals(format)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                writeCsvRow(writer, COLUMNS);
+                while (iterator.hasNext()) {
+                    writeCsvRow(writer, values(iterator.next()));
+                    rows++;
+                }
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+                while (iterator.hasNext()) {
+                    writeJsonRow(generator, values(iterator.next()));
+                    rows++;
+                }
+                generator.flush();
+            }
+        }
+        log.info("Exported {} posts as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private Stream<PostSummary> stream(PostFilter filter) {
+        BenefitTypes benefitType = filter.getBenefitType();
+        boolean dated = filter.getFrom() != null || filter.getTo() != null;
+        boolean bounded = filter.hasBounds();
+        return postsRepo.streamSummaries(
+                benefitType == null ? EnumSet.allOf(BenefitTypes.class) : EnumSet.of(benefitType),
+                benefitType == null || benefitType == BenefitTypes.COMMUNITY_ISSUE,
+                dated,
+                filter.getFrom() == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : filter.getFrom(),
+                filter.getTo() == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : filter.getTo(),
+                bounded,
+                bounded ? filter.getMinLat() : 0, bounded ? filter.getMaxLat() : 0,
+                bounded ? filter.getMinLng() : 0, bounded ? filter.getMaxLng() : 0);
+    }
+
+    // In COLUMNS order
+    private static List<Object> values(PostSummary post) {
+        return Arrays.asList(post.getPostId(), post.getEmail(), post.getBenefitType(), post.getIssueName(),
+                post.getSchemeName(), post.getDescription(), post.getActivityDescription(), post.getComment(),
+                post.getLatitude(), post.getLongitude(), post.getCreateDate(), post.getImage());
+    }
+
+    private static void writeJsonRow(JsonGenerator generator, List<?> values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                generator.writeNullField(COLUMNS.get(i));
+            } else if (value instanceof Number number) {
+                generator.writeFieldName(COLUMNS.get(i));
+                if (number instanceof Double d) {
+                    generator.writeNumber(d);
+                } else {
+                    generator.writeNumber(number.longValue());
+                }
+            } else {
+                generator.writeStringField(COLUMNS.get(i), value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
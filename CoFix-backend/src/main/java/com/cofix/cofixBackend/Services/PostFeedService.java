@@ -0,0 +1,294 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes post-created and post-deleted events to Server-Sent Events subscribers.
+ * <p>
+ * It listens to the same application events as the map indexes, after commit, and fans each one out to the
+ * subscribers whose viewport or email filter it matches. Every subscriber has its own bounded buffer that a small
+ * worker pool drains, so a slow connection never holds up the request that published the event or the other
+ * subscribers. When a buffer overflows its backlog is dropped and a {@code resync} event is queued ahead of the new
+ * one, telling that client to refetch instead of replaying what it missed.
+ * <p>
+ * A client that stops reading without closing the connection blocks the worker writing to it once the socket
+ * buffer is full. Writes that take longer than {@code send-timeout-ms} get that subscriber dropped, and the pool is
+ * given a replacement thread until the blocked write returns, so the other subscribers keep receiving events. The
+ * emitter itself is completed by that worker once the write returns: the blocked write holds the emitter's lock,
+ * and completing it from the scheduler would park the scheduler thread behind it.
+ */
+@Service
+@Slf4j
+public class PostFeedService {
+
+    public static final String CREATED = "post-created";
+    public static final String DELETED = "post-deleted";
+    public static final String RESYNC = "resync";
+
+    private static final FeedEvent HEARTBEAT = new FeedEvent(null, null);
+    // Subscriber.sendStartedAt values besides the start time of a write in progress
+    private static final long IDLE = 0;
+    private static final long STALLED = -1;
+
+    @Value("${cofix.feed.buffer-size:256}")
+    int bufferSize;
+    @Value("${cofix.feed.max-subscribers:1000}")
+    int maxSubscribers;
+    @Value("${cofix.feed.workers:2}")
+    int workers;
+    @Value("${cofix.feed.timeout-ms:1800000}")
+    long timeoutMs;
+    @Value("${cofix.feed.send-timeout-ms:10000}")
+    long sendTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Taken before a subscriber is added, so concurrent subscribes can't go past the limit
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong stalls = new AtomicLong();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Each subscriber has at most one drain task queued, so a queue the size of the subscriber limit never fills
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(maxSubscribers), runnable -> {
+            Thread thread = new Thread(runnable, "post-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a feed of posts matching {@code filter} (benefit type and viewport) and, if given, posted by
+     * {@code email}. Returns null when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(PostFilter filter, String email) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        return register(emitter, filter, email) ? emitter : null;
+    }
+
+    boolean register(SseEmitter emitter, PostFilter filter, String email) {
+        if (subscriberSlots.incrementAndGet() > maxSubscribers) {
+            subscriberSlots.decrementAndGet();
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(emitter, filter, email, bufferSize);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        // Sent ahead of any event so the client knows the stream is open
+        offer(subscriber, HEARTBEAT);
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        publish(CREATED, event.getPost());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        publish(DELETED, event.getPost());
+    }
+
+    private void publish(String name, PostSummary post) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        FeedEvent event = new FeedEvent(name, post);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(post)) {
+                offer(subscriber, event);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and finds the ones whose client has gone away
+    @Scheduled(fixedDelayString = "${cofix.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty()) {
+                offer(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose current write has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${cofix.feed.stall-check-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt.get();
+            if (started > 0 && now - started > sendTimeoutMs && subscriber.sendStartedAt.compareAndSet(started, STALLED)) {
+                stalls.incrementAndGet();
+                // The blocked worker is lost until its write fails, so the pool gets a thread in its place
+                resizeWorkers(1);
+                log.info("Dropping feed subscriber whose write has been blocked for {} ms", now - started);
+                // Completing the emitter here would wait on the lock the blocked write holds; its worker does that
+                remove(subscriber);
+                subscriber.queue.clear();
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, FeedEvent event) {
+        if (!subscriber.queue.offer(event)) {
+            // Too far behind to catch up: drop the backlog and have the client reload instead
+            subscriber.queue.clear();
+            subscriber.queue.offer(new FeedEvent(RESYNC, null));
+            subscriber.queue.offer(event);
+            overflows.incrementAndGet();
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            FeedEvent event = subscriber.queue.poll();
+            if (event == null) {
+                subscriber.draining.set(false);
+                // An event offered between the poll and the reset would otherwise wait for the next one
+                if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            long started = System.currentTimeMillis();
+            subscriber.sendStartedAt.set(started);
+            try {
+                subscriber.emitter.send(toSse(event));
+                delivered.incrementAndGet();
+            } catch (IOException | IllegalStateException e) {
+                if (!subscriber.sendStartedAt.compareAndSet(started, IDLE)) {
+                    resizeWorkers(-1);
+                }
+                log.debug("Dropping feed subscriber: {}", e.getMessage());
+                drop(subscriber, e);
+                return;
+            }
+            if (!subscriber.sendStartedAt.compareAndSet(started, IDLE)) {
+                // Dropped as stalled while this write was blocked; its replacement thread is no longer needed
+                resizeWorkers(-1);
+                drop(subscriber, new TimeoutException("Feed write blocked for more than " + sendTimeoutMs + " ms"));
+                return;
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber, Throwable cause) {
+        remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberSlots.decrementAndGet();
+        }
+    }
+
+    private void resizeWorkers(int delta) {
+        synchronized (executor) {
+            int size = executor.getCorePoolSize() + delta;
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (delta > 0) {
+                executor.setMaximumPoolSize(size);
+                executor.setCorePoolSize(size);
+            } else {
+                executor.setCorePoolSize(size);
+                executor.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(FeedEvent event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("keepalive");
+        }
+        SseEmitter.SseEventBuilder sse = SseEmitter.event().id(Long.toString(eventIds.incrementAndGet())).name(event.name);
+        return event.post != null ? sse.data(event.post, MediaType.APPLICATION_JSON) : sse.data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("bufferSize", bufferSize);
+        stats.put("delivered", delivered.get());
+        stats.put("overflows", overflows.get());
+        stats.put("stalls", stalls.get());
+        stats.put("workers", executor.getCorePoolSize());
+        return stats;
+    }
+
+    private static class FeedEvent {
+        final String name;
+        final PostSummary post;
+
+        FeedEvent(String name, PostSummary post) {
+            this.name = name;
+            this.post = post;
+        }
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final PostFilter filter;
+        final String email;
+        final BlockingQueue<FeedEvent> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicLong sendStartedAt = new AtomicLong(IDLE);
+
+        Subscriber(SseEmitter emitter, PostFilter filter, String email, int bufferSize) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.email = email;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean matches(PostSummary post) {
+            return (email == null || email.equals(post.getEmail())) && filter.matches(post);
+        }
+    }
+}
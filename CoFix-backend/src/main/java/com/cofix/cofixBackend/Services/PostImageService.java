@@ -0,0 +1,173 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.ImageReferences;
+import com.cofix.cofixBackend.Models.MyPost;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Moves inline (data URL or bare base64) post images into the {@link BlobStore} and replaces them with
+ * {@code /api/images/{hash}} references, so the posts table only carries short strings.
+ * <p>
+ * Identical bytes are stored once by the blob store itself. Every other image is stored as its own blob, and its
+ * perceptual hash is added to the {@link ImageHashIndex}, which groups it with a near-identical stored image (the
+ * same photo re-encoded or resized) so {@link DuplicateDetector} can recognise it.
+ * <p>
+ * Uploaded photos are checked while they are streamed to disk: anything that does not start like a JPEG, PNG, GIF
+ * or WebP image is refused before a byte is written, and the upload is cut off once it passes
+ * {@code cofix.images.upload.max-bytes}.
+ */
+@Service
+@Slf4j
+public class PostImageService {
+
+    // Shorter values are never treated as bare base64 images
+    private static final int MIN_BARE_BASE64_LENGTH = 64;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    BlobStore blobStore;
+    @Autowired
+    ImageRenditionService imageRenditionService;
+    @Autowired
+    ImageHashIndex imageHashIndex;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${cofix.images.upload.max-bytes:10485760}")
+    long maxUploadBytes;
+
+    /**
+     * Replaces every inline image on the post with a blob reference. Returns true if anything changed.
+     */
+    public boolean externalizeImages(MyPost post) {
+        boolean changed = false;
+        String image = toReference(post.getImage());
+        if (!Objects.equals(image, post.getImage())) {
+            post.setImage(image);
+            changed = true;
+        }
+        List<String> images = post.getImages();
+        if (images != null) {
+            for (int i = 0; i < images.size(); i++) {
+                String reference = toReference(images.get(i));
+                if (!Objects.equals(reference, images.get(i))) {
+                    images.set(i, reference);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the blob reference for an inline image, or the value unchanged if it is empty, already a
+     * reference, an external URL or not decodable.
+     */
+    public String toReference(String value) {
+        if (value == null || value.isBlank() || ImageReferences.isReference(value) || value.startsWith("http://") || value.startsWith("https://")) {
+            return value;
+        }
+        byte[] data = decodeInline(value);
+        if (data == null) {
+            return value;
+        }
+        try {
+            return ImageReferences.PREFIX + store(new ByteArrayInputStream(data), "inline", Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob", e);
+        }
+    }
+
+    /**
+     * Stores an uploaded photo and queues its renditions. Returns the blob reference, or throws
+     * {@link UploadRejectedException} if the stream is not a supported image or is too large.
+     */
+    public String storeUpload(InputStream in) throws IOException {
+        // The magic bytes are peeked at and pushed back, so the type is known before anything is written
+        PushbackInputStream peekable = new PushbackInputStream(in, BlobStore.MAGIC_BYTES);
+        byte[] head = peekable.readNBytes(BlobStore.MAGIC_BYTES);
+        if (!BlobStore.probeContentType(head, head.length).startsWith("image/")) {
+            throw UploadRejectedException.unsupportedType();
+        }
+        peekable.unread(head);
+        return ImageReferences.PREFIX + store(peekable, "upload", maxUploadBytes);
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    /**
+     * True if the value is a reference to a blob that is actually stored, such as one returned by an earlier upload.
+     */
+    public boolean isStored(String reference) {
+        return blobStore.find(ImageReferences.hashOf(reference)).isPresent();
+    }
+
+    // Returns the hash of the stored blob
+    private String store(InputStream in, String source, long maxBytes) throws IOException {
+        try (BlobStore.Staged staged = blobStore.stage(in, maxBytes)) {
+            recordUpload(source, Files.size(staged.getPath()));
+            String hash = staged.getHash();
+            if (blobStore.find(hash).isEmpty()) {
+                Long imageHash = imageHashIndex.hash(staged.getPath());
+                staged.commit();
+                if (imageHash != null) {
+                    String group = imageHashIndex.add(hash, imageHash);
+                    if (!group.equals(hash)) {
+                        log.debug("Image {} looks like blob {}", hash, group);
+                    }
+                }
+            }
+            imageRenditionService.schedule(hash);
+            return hash;
+        }
+    }
+
+    private void recordUpload(String source, long bytes) {
+        DistributionSummary.builder("cofix.images.upload")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static byte[] decodeInline(String value) {
+        String base64;
+        if (value.startsWith("data:")) {
+            int comma = value.indexOf(',');
+            if (comma < 0 || !value.substring(0, comma).endsWith(";base64")) {
+                return null;
+            }
+            base64 = value.substring(comma + 1);
+        } else if (value.length() >= MIN_BARE_BASE64_LENGTH) {
+            base64 = value;
+        } else {
+            return null;
+        }
+        try {
+            // The strict decoder rejects anything that is not base64, unlike the MIME decoder which skips it
+            return Base64.getDecoder().decode(WHITESPACE.matcher(base64).replaceAll(""));
+        } catch (IllegalArgumentException e) {
+            log.debug("Image value is not base64, leaving it inline");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostImportResult;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import of posts from a CSV or NDJSON stream.
+ * <p>
+ * Rows are validated as they are read and inserted {@code batchSize} at a time, one transaction per batch, with
+ * the persistence context cleared after each one, so memory use does not grow with the file. Inserts go out as
+ * JDBC batches and post ids come from the pooled sequence, one round trip per 50 ids. If a batch fails in the
+ * database its rows are retried one by one to find the bad ones; every rejected row is reported with its line
+ * number. Imported posts are announced like any other new post, but no notification emails are sent.
+ */
+@Service
+@Slf4j
+public class PostImportService {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    @PersistenceContext
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    PostImageService postImageService;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${cofix.import.batch-size:500}")
+    int batchSize;
+    @Value("${cofix.import.max-errors:1000}")
+    int maxErrors;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports every row of {@code in}. Rows without a benefitType get {@code defaultType}.
+     *
+     * @param format {@link #CSV} or {@link #NDJSON}
+     */
+    public PostImportResult importPosts(InputStream in, String format, BenefitTypes defaultType) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportRowReader rows = NDJSON.equals(format) ? ImportRowReader.ndjson(reader, objectMapper) : ImportRowReader.csv(reader);
+        PostImportResult result = new PostImportResult(maxErrors);
+        List<PendingPost> batch = new ArrayList<>(batchSize);
+        long start = System.currentTimeMillis();
+        ImportRowReader.Row row;
+        while ((row = rows.next()) != null) {
+            if (row.getError() != null) {
+                result.reject(row.getLine(), row.getError());
+                continue;
+            }
+            try {
+                batch.add(new PendingPost(row.getLine(), toPost(row, defaultType)));
+            } catch (IllegalArgumentException e) {
+                result.reject(row.getLine(), e.getMessage());
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                insert(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, result);
+        }
+        log.info("Imported {} posts, rejected {} rows in {} ms", result.getImported(), result.getFailed(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    MyPost toPost(ImportRowReader.Row row, BenefitTypes defaultType) {
+        MyPost post = new MyPost();
+        String email = text(row, "email");
+        if (email == null) {
+            throw new IllegalArgumentException("email is required");
+        }
+        if (userCache.find(email).isEmpty()) {
+            throw new IllegalArgumentException("Unknown user " + email);
+        }
+        post.setEmail(email);
+
+        String benefitType = text(row, "benefitType");
+        try {
+            post.setBenefitType(benefitType == null ? defaultType : BenefitTypes.valueOf(benefitType.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown benefitType " + benefitType);
+        }
+        post.setSchemeName(text(row, "schemeName"));
+        post.setIssueName(text(row, "issueName"));
+        post.setDescription(text(row, "description"));
+        post.setActivityDescription(text(row, "activityDescription"));
+        post.setComment(text(row, "comment"));
+        post.setImage(text(row, "image"));
+        if (post.getBenefitType() == BenefitTypes.GOVERNMENT_SCHEME ? post.getSchemeName() == null : post.getIssueName() == null) {
+            throw new IllegalArgumentException((post.getBenefitType() == BenefitTypes.GOVERNMENT_SCHEME ? "schemeName" : "issueName") + " is required");
+        }
+
+        Double latitude = coordinate(row, "latitude", 90);
+        Double longitude = coordinate(row, "longitude", 180);
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("latitude and longitude must be given together");
+        }
+        if (latitude != null) {
+            post.setLocation(new Location(latitude, longitude));
+        }
+
+        String createDate = text(row, "createDate");
+        try {
+            post.setCreateDate(createDate == null ? LocalDateTime.now() : LocalDateTime.parse(createDate));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("createDate must look like 2024-07-04T21:46:51");
+        }
+        // Stored outside the transaction; a row rejected later only leaves an unreferenced blob behind
+        postImageService.externalizeImages(post);
+        return post;
+    }
+
+    private void insert(List<PendingPost> batch, PostImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            result.imported(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} rows starting at line {} failed, retrying row by row: {}", batch.size(), batch.get(0).line, e.getMessage());
+            for (PendingPost pending : batch) {
+                // The failed attempt already handed out an id and wrapped the image list for its own session
+                pending.post.setPostId(null);
+                pending.post.setImages(new ArrayList<>(pending.post.getImages()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(pending)));
+                    result.imported(1);
+                } catch (RuntimeException rowFailure) {
+                    result.reject(pending.line, NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingPost> batch) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (PendingPost pending : batch) {
+            entityManager.persist(pending.post);
+        }
+        entityManager.flush();
+        for (PendingPost pending : batch) {
+            // Delivered after commit, so the indexes never see rows that were rolled back
+            eventPublisher.publishEvent(new PostCreatedEvent(PostSummary.of(pending.post)));
+        }
+        entityManager.clear();
+    }
+
+    private static String text(ImportRowReader.Row row, String field) {
+        String value = row.get(field);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Double coordinate(ImportRowReader.Row row, String field, double limit) {
+        String value = text(row, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            double coordinate = Double.parseDouble(value);
+            if (coordinate >= -limit && coordinate <= limit) {
+                return coordinate;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(field + " must be a number between " + (int) -limit + " and " + (int) limit);
+    }
+
+    private static class PendingPost {
+        final long line;
+        final MyPost post;
+
+        PendingPost(long line, MyPost post) {
+            this.line = line;
+            this.post = post;
+        }
+    }
+}
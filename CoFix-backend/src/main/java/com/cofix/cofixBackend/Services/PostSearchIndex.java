@@ -0,0 +1,332 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.ImagesMigratedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the text of every post, ranked with BM25.
+ * <p>
+ * issueName, schemeName, description, activityDescription and comment are tokenized into lower-case words; the
+ * two name fields count double. The last word of a query also matches every indexed word it is a prefix of, so
+ * results appear while the user is still typing. Like {@link PostSpatialIndex} it is loaded once the application
+ * is ready and then kept current from the post created/deleted events. Deleted and updated posts leave empty
+ * document slots behind; once they make up {@code compact-deleted-ratio} of all slots the index is renumbered.
+ */
+@Service
+@Slf4j
+public class PostSearchIndex {
+
+    public static final int DEFAULT_RESULT_LIMIT = 20;
+    public static final int MAX_RESULT_LIMIT = 200;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Keeps a one-letter-too-short prefix like "st" from scoring thousands of terms
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "in", "is", "it", "of", "on", "or", "the", "this", "to", "was", "with");
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    @Value("${cofix.search.compact-deleted-ratio:0.25}")
+    double compactDeletedRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted, so prefix lookups are a range scan
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // Dense document numbers keep postings small; slots of deleted posts stay null until the next compaction
+    private final List<PostSummary> docs = new ArrayList<>();
+    private int[] docLengths = new int[1024];
+    private final Map<Long, Integer> docByPostId = new HashMap<>();
+    private long totalLength;
+    private long compactions;
+
+    @EventListener({ApplicationReadyEvent.class, ImagesMigratedEvent.class})
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            terms.clear();
+            docs.clear();
+            docByPostId.clear();
+            totalLength = 0;
+            for (PostSummary post : postsRepo.findAllSummaries()) {
+                insert(post);
+            }
+            log.info("Search index built with {} posts and {} terms in {} ms", docByPostId.size(), terms.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            insert(event.getPost());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getPost().getPostId());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} posts matching any word of the query, best first, that also pass the filter's
+     * benefit type and bounding box.
+     */
+    public List<PostSummary> search(String query, PostFilter filter, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int docCount = docByPostId.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / docCount;
+            List<Postings> matched = new ArrayList<>();
+            int postingCount = 0;
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                Postings exact = terms.get(word);
+                if (exact != null) {
+                    matched.add(exact);
+                    postingCount += exact.size;
+                }
+                if (i == words.size() - 1 && word.length() >= MIN_PREFIX_LENGTH) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Postings> entry : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                        if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        matched.add(entry.getValue());
+                        postingCount += entry.getValue().size;
+                    }
+                }
+            }
+            // Only documents in the matched postings get a score, so the work follows the query, not the index size
+            Map<Integer, Double> scores = new HashMap<>(Math.min(postingCount, docCount) * 4 / 3 + 1);
+            for (Postings postings : matched) {
+                double idf = Math.log(1 + (docCount - postings.size + 0.5) / (postings.size + 0.5));
+                for (int p = 0; p < postings.size; p++) {
+                    int doc = postings.docs[p];
+                    int frequency = postings.frequencies[p];
+                    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    scores.merge(doc, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+
+            // Min-heap of the best documents seen so far
+            PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Double> candidate : scores.entrySet()) {
+                if (best.size() == limit && candidate.getValue() <= best.peek().getValue()) {
+                    continue;
+                }
+                if (filter != null && !filter.matches(docs.get(candidate.getKey()))) {
+                    continue;
+                }
+                best.add(candidate);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<PostSummary> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                result.add(docs.get(best.poll().getKey()));
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("posts", docByPostId.size());
+            stats.put("terms", terms.size());
+            stats.put("deletedSlots", docs.size() - docByPostId.size());
+            stats.put("compactions", compactions);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case words made of letters, digits and combining marks (so Indic scripts stay whole), without stop words.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && isWordChar(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = normalized.substring(start, i);
+                if (!STOP_WORDS.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private void insert(PostSummary post) {
+        remove(post.getPostId());
+        Map<String, Integer> frequencies = termFrequencies(post);
+        int doc = docs.size();
+        docs.add(post);
+        if (doc == docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            // Documents are numbered in insertion order, so appending keeps every postings list sorted
+            terms.computeIfAbsent(entry.getKey(), k -> new Postings()).append(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        docLengths[doc] = length;
+        totalLength += length;
+        docByPostId.put(post.getPostId(), doc);
+    }
+
+    private void remove(Long postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : termFrequencies(docs.get(doc)).keySet()) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(doc) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= docLengths[doc];
+        docs.set(doc, null);
+    }
+
+    // Renumbers the live documents from 0 so postings, docLengths and docs lose the slots of deleted posts
+    private void compactIfNeeded() {
+        int deleted = docs.size() - docByPostId.size();
+        if (deleted == 0 || deleted < docs.size() * compactDeletedRatio) {
+            return;
+        }
+        List<PostSummary> live = new ArrayList<>(docByPostId.size());
+        for (PostSummary post : docs) {
+            if (post != null) {
+                live.add(post);
+            }
+        }
+        terms.clear();
+        docs.clear();
+        docByPostId.clear();
+        totalLength = 0;
+        for (PostSummary post : live) {
+            insert(post);
+        }
+        compactions++;
+        log.debug("Compacted search index, reclaimed {} slots", deleted);
+    }
+
+    private static Map<String, Integer> termFrequencies(PostSummary post) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addWords(frequencies, post.getIssueName(), NAME_WEIGHT);
+        addWords(frequencies, post.getSchemeName(), NAME_WEIGHT);
+        addWords(frequencies, post.getDescription(), 1);
+        addWords(frequencies, post.getActivityDescription(), 1);
+        addWords(frequencies, post.getComment(), 1);
+        return frequencies;
+    }
+
+    private static void addWords(Map<String, Integer> frequencies, String text, int weight) {
+        for (String word : tokenize(text)) {
+            frequencies.merge(word, weight, Integer::sum);
+        }
+    }
+
+    // Parallel arrays of document numbers (ascending) and weighted term frequencies
+    private static class Postings {
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void append(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.ImagesMigratedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory fixed grid over post locations, used to answer map viewport queries without touching the database.
+ * The grid is loaded from {@link PostsRepo} once the application is ready and is then kept current from the
+ * post created/deleted events published by {@link CofixService}.
+ */
+@Service
+@Slf4j
+public class PostSpatialIndex {
+
+    public static final int DEFAULT_RESULT_LIMIT = 500;
+    public static final int MAX_RESULT_LIMIT = 5000;
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    @Value("${cofix.spatial.cell-size-degrees:0.05}")
+    double cellSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // cell key -> (postId -> post)
+    private final Map<Long, Map<Long, PostSummary>> cells = new HashMap<>();
+    private final Map<Long, PostSummary> byPostId = new HashMap<>();
+
+    @EventListener({ApplicationReadyEvent.class, ImagesMigratedEvent.class})
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            cells.clear();
+            byPostId.clear();
+            for (PostSummary post : postsRepo.findAllSummaries()) {
+                insert(post);
+            }
+            log.info("Spatial index built with {} posts in {} cells in {} ms", byPostId.size(), cells.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            insert(event.getPost());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            PostSummary removed = byPostId.remove(event.getPost().getPostId());
+            if (removed != null) {
+                long key = cellKey(removed.getLatitude(), removed.getLongitude());
+                Map<Long, PostSummary> cell = cells.get(key);
+                cell.remove(removed.getPostId());
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} posts inside the box, optionally restricted to one benefit type.
+     * A box with minLng greater than maxLng is taken to cross the antimeridian.
+     */
+    public List<PostSummary> findInBounds(double minLat, double maxLat, double minLng, double maxLng, BenefitTypes benefitType, int limit) {
+        List<PostSummary> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (minLng > maxLng) {
+                collect(minLat, maxLat, minLng, 180, benefitType, limit, result);
+                collect(minLat, maxLat, -180, maxLng, benefitType, limit, result);
+            } else {
+                collect(minLat, maxLat, minLng, maxLng, benefitType, limit, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byPostId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(double minLat, double maxLat, double minLng, double maxLng, BenefitTypes benefitType, int limit, List<PostSummary> result) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minCol = col(minLng);
+        int maxCol = col(maxLng);
+        long rangeCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        if (rangeCells <= cells.size()) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Map<Long, PostSummary> cell = cells.get(key(row, col));
+                    if (cell != null && !collectCell(cell, minLat, maxLat, minLng, maxLng, benefitType, limit, result)) {
+                        return;
+                    }
+                }
+            }
+        } else {
+            // Large viewport over a sparse grid: walking the occupied cells is cheaper than walking the range
+            for (Map.Entry<Long, Map<Long, PostSummary>> entry : cells.entrySet()) {
+                int row = (int) (entry.getKey() >> 32);
+                int col = (int) (long) entry.getKey();
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol
+                        && !collectCell(entry.getValue(), minLat, maxLat, minLng, maxLng, benefitType, limit, result)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Returns false once the limit has been reached
+    private boolean collectCell(Map<Long, PostSummary> cell, double minLat, double maxLat, double minLng, double maxLng,
+                                BenefitTypes benefitType, int limit, List<PostSummary> result) {
+        for (PostSummary post : cell.values()) {
+            if (result.size() >= limit) {
+                return false;
+            }
+            double lat = post.getLatitude();
+            double lng = post.getLongitude();
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng
+                    && (benefitType == null || benefitType == post.getBenefitType())) {
+                result.add(post);
+            }
+        }
+        return result.size() < limit;
+    }
+
+    private void insert(PostSummary post) {
+        PostSummary previous = byPostId.put(post.getPostId(), post);
+        if (previous != null) {
+            long oldKey = cellKey(previous.getLatitude(), previous.getLongitude());
+            Map<Long, PostSummary> oldCell = cells.get(oldKey);
+            oldCell.remove(previous.getPostId());
+            if (oldCell.isEmpty()) {
+                cells.remove(oldKey);
+            }
+        }
+        cells.computeIfAbsent(cellKey(post.getLatitude(), post.getLongitude()), k -> new HashMap<>()).put(post.getPostId(), post);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellSize);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor(lng / cellSize);
+    }
+
+    private long cellKey(double lat, double lng) {
+        return key(row(lat), col(lng));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
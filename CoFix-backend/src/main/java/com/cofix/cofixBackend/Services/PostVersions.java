@@ -0,0 +1,78 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters for the post lists, used as strong ETags so an unchanged list can be answered with 304 before
+ * the database is queried.
+ * <p>
+ * Every committed create or delete bumps the global counter and the counter of the post's email. A tag also
+ * carries the startup time, since posts can change while the application is down, and a reset count that
+ * {@link #invalidateAll()} bumps for changes that touch many users at once. Callers must take the tag before
+ * loading the list: a change that commits in between then produces a newer tag on the next request rather than
+ * old data under a new tag.
+ * <p>
+ * The counters live in this instance's memory and only see changes committed through it, so the tags are only
+ * correct while a single instance serves the API. Behind a load balancer an instance would keep answering 304 for
+ * lists another instance has changed; tags from different instances never match, since they carry the startup
+ * time, but that only protects clients that switch instances. Running more than one instance needs the version
+ * taken from the database instead, at the cost of a query per request.
+ */
+@Service
+public class PostVersions {
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong global = new AtomicLong();
+    private final Map<String, AtomicLong> byEmail = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        bump(event.getPost().getEmail());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        bump(event.getPost().getEmail());
+    }
+
+    /**
+     * Invalidates every tag, for changes that aren't published as post events.
+     */
+    public void invalidateAll() {
+        resets.incrementAndGet();
+    }
+
+    /**
+     * Tag for lists drawn from all posts. Caches key tags by URL, so lists filtered differently can share it.
+     */
+    public String globalTag() {
+        return tag("g" + global.get());
+    }
+
+    /**
+     * Tag for lists of one user's posts.
+     */
+    public String emailTag(String email) {
+        AtomicLong version = email == null ? null : byEmail.get(email);
+        return tag("e" + (version == null ? 0 : version.get()));
+    }
+
+    private void bump(String email) {
+        global.incrementAndGet();
+        if (email != null) {
+            byEmail.computeIfAbsent(email, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private String tag(String version) {
+        return "\"" + instance + "-" + resets.get() + "-" + version + "\"";
+    }
+}
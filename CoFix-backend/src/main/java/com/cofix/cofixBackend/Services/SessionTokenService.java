@@ -0,0 +1,152 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.SessionToken;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies stateless session tokens.
+ * <p>
+ * A token is {@code base64url(email|expiresAt|tokenId) "." base64url(HMAC-SHA256)}, so checking one needs no
+ * database access. Logout adds the token id to a revocation set that only holds ids until their token would have
+ * expired anyway, which keeps it small. The set lives in memory, so a restart forgets revocations; with a
+ * generated secret it also invalidates every token.
+ */
+@Service
+@Slf4j
+public class SessionTokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${cofix.auth.token.secret:}")
+    String secret;
+    @Value("${cofix.auth.token.ttl-seconds:86400}")
+    long ttlSeconds;
+
+    private final SecureRandom random = new SecureRandom();
+    // tokenId -> expiresAt of revoked tokens that haven't expired yet
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("cofix.auth.token.secret is not set, using a random key; sessions will not survive a restart");
+            keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                log.warn("cofix.auth.token.secret is shorter than 32 bytes");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(String email) {
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+        byte[] payload = (email + "|" + expiresAt + "|" + Long.toHexString(random.nextLong())).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Returns the token's claims, or null when it is malformed, forged, expired or revoked.
+     */
+    public SessionToken verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        SessionToken session = parse(new String(payload, StandardCharsets.UTF_8));
+        if (session == null || session.getExpiresAt() <= Instant.now().getEpochSecond()
+                || revoked.containsKey(session.getTokenId())) {
+            return null;
+        }
+        return session;
+    }
+
+    public void revoke(SessionToken session) {
+        revoked.put(session.getTokenId(), session.getExpiresAt());
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpiredRevocations() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("revoked", revoked.size());
+        return stats;
+    }
+
+    // email may itself contain '|', so the two fixed fields are split off from the right
+    private static SessionToken parse(String payload) {
+        int idSeparator = payload.lastIndexOf('|');
+        int expirySeparator = idSeparator > 0 ? payload.lastIndexOf('|', idSeparator - 1) : -1;
+        if (expirySeparator <= 0) {
+            return null;
+        }
+        try {
+            return new SessionToken(payload.substring(0, expirySeparator),
+                    Long.parseUnsignedLong(payload.substring(idSeparator + 1), 16),
+                    Long.parseLong(payload.substring(expirySeparator + 1, idSeparator)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CellCount;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.DailyCount;
+import com.cofix.cofixBackend.Models.PostSummary;
+import com.cofix.cofixBackend.Repos.CommunityIssuesRepo;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard counts for posts and reported community issues: totals by benefit type, by issue category, urgency
+ * and status, by creation day and by grid cell.
+ * <p>
+ * The counters are loaded once the application is ready and then adjusted by every post created/deleted and
+ * issue saved event, so reading them never touches the database. For each counted row it remembers what that
+ * row added, so a delete or an update (such as a status change) takes back exactly that. Issue labels are counted
+ * trimmed and lower-cased, with missing ones under {@value #UNSPECIFIED}.
+ */
+@Service
+@Slf4j
+public class StatsRollups {
+
+    static final String UNSPECIFIED = "unspecified";
+
+    private static final int TYPES = BenefitTypes.values().length;
+
+    @Value("${cofix.stats.cell-size-degrees:0.1}")
+    double cellSize;
+
+    @Autowired
+    PostsRepo postsRepo;
+
+    @Autowired
+    CommunityIssuesRepo communityIssuesRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostEntry> posts = new HashMap<>();
+    private final Map<Long, IssueEntry> issues = new HashMap<>();
+    private final long[] byBenefitType = new long[TYPES];
+    private final Map<String, Long> byCategory = new TreeMap<>();
+    private final Map<String, Long> byUrgency = new TreeMap<>();
+    private final Map<String, Long> byStatus = new TreeMap<>();
+    private final TreeMap<LocalDate, Counts> byDay = new TreeMap<>();
+    private final Map<Long, Counts> byCell = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            long start = System.currentTimeMillis();
+            posts.clear();
+            issues.clear();
+            Arrays.fill(byBenefitType, 0);
+            byCategory.clear();
+            byUrgency.clear();
+            byStatus.clear();
+            byDay.clear();
+            byCell.clear();
+            for (PostSummary post : postsRepo.findAllSummaries()) {
+                addPost(post);
+            }
+            for (CommunityIssue issue : communityIssuesRepo.findAll()) {
+                addIssue(issue);
+            }
+            log.info("Stats rollups built with {} posts and {} issues in {} ms", posts.size(), issues.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            addPost(event.getPost());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removePost(event.getPost().getPostId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueSaved(IssueSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            addIssue(event.getIssue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Post totals by benefit type and reported issue totals by category, urgency and status.
+     */
+    public Map<String, Object> getTotals() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> totals = new LinkedHashMap<>();
+            totals.put("posts", (long) posts.size());
+            totals.put("byBenefitType", toMap(byBenefitType));
+            totals.put("reports", (long) issues.size());
+            totals.put("byCategory", new LinkedHashMap<>(byCategory));
+            totals.put("byUrgency", new LinkedHashMap<>(byUrgency));
+            totals.put("byStatus", new LinkedHashMap<>(byStatus));
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts per creation day from {@code from} to {@code to}, both inclusive and either open when null, oldest
+     * first. Days without posts or reports are left out.
+     */
+    public List<DailyCount> getDaily(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, Counts> days = byDay;
+            if (from != null) {
+                days = days.tailMap(from, true);
+            }
+            if (to != null) {
+                days = days.headMap(to, true);
+            }
+            List<DailyCount> result = new ArrayList<>(days.size());
+            for (Map.Entry<LocalDate, Counts> entry : days.entrySet()) {
+                Counts counts = entry.getValue();
+                result.add(new DailyCount(entry.getKey(), counts.total(), toMap(counts.posts), counts.reports));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts per grid cell for cells overlapping the box, or for all cells when {@code bounded} is false.
+     * A box with minLng greater than maxLng is taken to cross the antimeridian.
+     */
+    public List<CellCount> getCells(boolean bounded, double minLat, double maxLat, double minLng, double maxLng) {
+        int minRow = (int) Math.floor(minLat / cellSize);
+        int maxRow = (int) Math.floor(maxLat / cellSize);
+        int minCol = (int) Math.floor(minLng / cellSize);
+        int maxCol = (int) Math.floor(maxLng / cellSize);
+        List<CellCount> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, Counts> entry : byCell.entrySet()) {
+                int row = (int) (entry.getKey() >> 32);
+                int col = (int) (long) entry.getKey();
+                if (bounded) {
+                    boolean inCols = minCol <= maxCol ? col >= minCol && col <= maxCol : col >= minCol || col <= maxCol;
+                    if (row < minRow || row > maxRow || !inCols) {
+                        continue;
+                    }
+                }
+                Counts counts = entry.getValue();
+                result.add(new CellCount(row * cellSize, col * cellSize, cellSize, counts.total(), toMap(counts.posts), counts.reports));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void addPost(PostSummary post) {
+        removePost(post.getPostId());
+        PostEntry entry = new PostEntry(post.getBenefitType().ordinal(),
+                post.getCreateDate() == null ? null : post.getCreateDate().toLocalDate(),
+                cellKey(post.getLatitude(), post.getLongitude()));
+        posts.put(post.getPostId(), entry);
+        applyPost(entry, 1);
+    }
+
+    private void removePost(Long postId) {
+        PostEntry entry = posts.remove(postId);
+        if (entry != null) {
+            applyPost(entry, -1);
+        }
+    }
+
+    private void applyPost(PostEntry entry, int sign) {
+        byBenefitType[entry.type] += sign;
+        if (entry.day != null) {
+            adjust(byDay, entry.day, counts -> counts.posts[entry.type] += sign);
+        }
+        adjust(byCell, entry.cell, counts -> counts.posts[entry.type] += sign);
+    }
+
+    private void addIssue(CommunityIssue issue) {
+        IssueEntry entry = new IssueEntry(label(issue.getCategory()), label(issue.getUrgency()), label(issue.getStatus()),
+                issue.getCreatedAt() == null ? null : issue.getCreatedAt().toLocalDate(),
+                issue.getLatitude() == null || issue.getLongitude() == null ? null : cellKey(issue.getLatitude(), issue.getLongitude()));
+        IssueEntry previous = issues.put(issue.getId(), entry);
+        if (previous != null) {
+            applyIssue(previous, -1);
+        }
+        applyIssue(entry, 1);
+    }
+
+    private void applyIssue(IssueEntry entry, int sign) {
+        count(byCategory, entry.category, sign);
+        count(byUrgency, entry.urgency, sign);
+        count(byStatus, entry.status, sign);
+        if (entry.day != null) {
+            adjust(byDay, entry.day, counts -> counts.reports += sign);
+        }
+        if (entry.cell != null) {
+            adjust(byCell, entry.cell, counts -> counts.reports += sign);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Counts> buckets, K key, Consumer<Counts> change) {
+        Counts counts = buckets.computeIfAbsent(key, k -> new Counts());
+        change.accept(counts);
+        if (counts.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    private static void count(Map<String, Long> counts, String label, int sign) {
+        counts.merge(label, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private static String label(String value) {
+        return value == null || value.isBlank() ? UNSPECIFIED : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<BenefitTypes, Long> toMap(long[] counts) {
+        Map<BenefitTypes, Long> map = new EnumMap<>(BenefitTypes.class);
+        for (BenefitTypes type : BenefitTypes.values()) {
+            map.put(type, counts[type.ordinal()]);
+        }
+        return map;
+    }
+
+    private long cellKey(double lat, double lng) {
+        int row = (int) Math.floor(lat / cellSize);
+        int col = (int) Math.floor(lng / cellSize);
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static class PostEntry {
+        final int type;
+        final LocalDate day;
+        final long cell;
+
+        PostEntry(int type, LocalDate day, long cell) {
+            this.type = type;
+            this.day = day;
+            this.cell = cell;
+        }
+    }
+
+    private static class IssueEntry {
+        final String category;
+        final String urgency;
+        final String status;
+        final LocalDate day;
+        final Long cell;
+
+        IssueEntry(String category, String urgency, String status, LocalDate day, Long cell) {
+            this.category = category;
+            this.urgency = urgency;
+            this.status = status;
+            this.day = day;
+            this.cell = cell;
+        }
+    }
+
+    private static class Counts {
+        final long[] posts = new long[TYPES];
+        long reports;
+
+        long total() {
+            long total = 0;
+            for (long count : posts) {
+                total += count;
+            }
+            return total;
+        }
+
+        boolean isEmpty() {
+            return reports == 0 && total() == 0;
+        }
+    }
+}
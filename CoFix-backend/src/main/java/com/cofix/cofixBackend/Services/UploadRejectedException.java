@@ -0,0 +1,27 @@
+package com.cofix.cofixBackend.Services;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an uploaded image is refused while it is being streamed, either for its size or for its type.
+ */
+@Getter
+public class UploadRejectedException extends RuntimeException {
+
+    public enum Reason { TOO_LARGE, UNSUPPORTED_TYPE }
+
+    private final Reason reason;
+
+    private UploadRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public static UploadRejectedException tooLarge(long maxBytes) {
+        return new UploadRejectedException(Reason.TOO_LARGE, "Upload is larger than " + maxBytes + " bytes");
+    }
+
+    public static UploadRejectedException unsupportedType() {
+        return new UploadRejectedException(Reason.UNSUPPORTED_TYPE, "Upload is not a JPEG, PNG, GIF or WebP image");
+    }
+}
@@ -0,0 +1,142 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.MyUser;
+import com.cofix.cofixBackend.Repos.UsersRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of {@link MyUser} rows keyed by email.
+ * <p>
+ * Entries expire after {@code ttl-seconds} and the least recently used entry is evicted once the cache holds
+ * {@code max-size} users. Unknown emails are cached as absent too, so repeated signup checks and failed logins
+ * don't reach the database either. Writes go through {@link #save(MyUser)}, which replaces the cached copy.
+ * Callers get their own copy of the user, so mutating a returned object never changes what is cached.
+ */
+@Service
+@Slf4j
+public class UserCache {
+
+    @Autowired
+    UsersRepo usersRepo;
+
+    @Value("${cofix.users.cache.max-size:10000}")
+    int maxSize;
+    @Value("${cofix.users.cache.ttl-seconds:300}")
+    long ttlSeconds;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxSize) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expirationCount = new AtomicLong();
+    // Bumped by every write so a slow load can't overwrite a newer value with the row it read earlier
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    public Optional<MyUser> find(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null) {
+                if (now - entry.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                    hitCount.incrementAndGet();
+                    return Optional.ofNullable(copyOf(entry.user));
+                }
+                entries.remove(email);
+                expirationCount.incrementAndGet();
+            }
+        }
+        missCount.incrementAndGet();
+        // Loaded outside the lock; two threads missing on the same email both read it, which is harmless
+        long generation = writeGeneration.get();
+        MyUser user = usersRepo.findById(email).orElse(null);
+        Entry loaded = new Entry(copyOf(user), System.nanoTime());
+        synchronized (entries) {
+            if (maxSize > 0 && writeGeneration.get() == generation) {
+                entries.put(email, loaded);
+            }
+        }
+        return Optional.ofNullable(copyOf(user));
+    }
+
+    public MyUser save(MyUser user) {
+        MyUser saved = usersRepo.save(user);
+        Entry entry = new Entry(copyOf(saved), System.nanoTime());
+        synchronized (entries) {
+            writeGeneration.incrementAndGet();
+            if (maxSize > 0) {
+                entries.put(saved.getEmail(), entry);
+            }
+        }
+        return saved;
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            writeGeneration.incrementAndGet();
+            entries.remove(email);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            writeGeneration.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictions", evictionCount.get());
+        stats.put("expirations", expirationCount.get());
+        return stats;
+    }
+
+    private static MyUser copyOf(MyUser user) {
+        if (user == null) {
+            return null;
+        }
+        return new MyUser(user.getEmail(), user.getName(), user.getPassword(), user.getNickName(), user.getPhoneNumber(),
+                user.getCountry(), user.getGender(), user.getAddress(), user.getCreateDate());
+    }
+
+    private static final class Entry {
+        final MyUser user;
+        final long loadedAt;
+
+        Entry(MyUser user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Repos.CommunityIssuesRepo;
+import com.cofix.cofixBackend.Services.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A report that repeats a recent one nearby is saved and answered with 201, listing what it may repeat.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class DuplicateReportTests {
+
+	private static final String EMAIL = "reporter@user.com";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	CommunityIssuesRepo communityIssuesRepo;
+
+	@Autowired
+	SessionTokenService sessionTokenService;
+
+	@Test
+	void savesRepeatedReportsAndListsWhatTheyMayRepeat() throws Exception {
+		long before = communityIssuesRepo.count();
+
+		mockMvc.perform(report("Overflowing drain on Station Road", "Sewage water flooding the footpath", -12.0461))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.possibleDuplicates").isEmpty());
+		mockMvc.perform(report("Drain overflowing on station road", "sewage water flooding footpath", -12.0462))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.possibleDuplicates.length()").value(1))
+				.andExpect(jsonPath("$.possibleDuplicates[0].source").value("report"));
+		// Too short to compare by text, so only a shared photo would flag it
+		mockMvc.perform(report("Drain", "", -12.0462))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.possibleDuplicates").isEmpty());
+
+		assertThat(communityIssuesRepo.count()).isEqualTo(before + 3);
+	}
+
+	private MockHttpServletRequestBuilder report(String title, String description, double latitude) {
+		return post("/api/issues/report")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + sessionTokenService.issue(EMAIL))
+				.param("title", title)
+				.param("description", description)
+				.param("category", "COMMUNITY_ISSUE")
+				.param("urgency", "high")
+				.param("latitude", Double.toString(latitude))
+				.param("longitude", "-77.0428")
+				.param("userEmail", EMAIL);
+	}
+}
@@ -0,0 +1,74 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.ImageReferences;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.cofix.cofixBackend.Services.ImageMigrationJob;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ImageMigrationTests {
+
+	private static final String INLINE = "data:image/png;base64," + Base64.getEncoder().encodeToString("legacy image".getBytes(StandardCharsets.UTF_8));
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	@Autowired
+	ImageMigrationJob imageMigrationJob;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@BeforeEach
+	void clearPosts() {
+		postsRepo.deleteAll();
+	}
+
+	@Test
+	void legacyInlineImagesShowUpInListsOnceMigratedOnStartup() throws Exception {
+		MyPost post = new MyPost();
+		post.setEmail("legacy@user.com");
+		post.setBenefitType(BenefitTypes.COMMUNITY_ISSUE);
+		post.setIssueName("Legacy issue");
+		post.setLocation(new Location(17.0, 78.0));
+		post.setImage(INLINE);
+		post.setImages(new ArrayList<>(List.of(INLINE, "https://example.com/photo.jpg")));
+		postsRepo.save(post);
+		assertThat(postsRepo.countPostsWithInlineImages()).isEqualTo(1);
+
+		imageMigrationJob.migrateOnStartup();
+
+		assertThat(postsRepo.countPostsWithInlineImages()).isZero();
+		JsonNode listed = objectMapper.readTree(mockMvc.perform(get("/api/issues/all"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8)).get(0);
+		assertThat(listed.get("image").asText()).startsWith(ImageReferences.PREFIX);
+		assertThat(listed.get("images")).hasSize(1);
+		assertThat(listed.get("images").get(0).asText()).isEqualTo(listed.get("image").asText());
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.ImageRendition;
+import com.cofix.cofixBackend.Services.BlobStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ImageServingTests {
+
+	private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	BlobStore blobStore;
+
+	@Test
+	void servesRenditionsAsImmutableAndTheFallbackOnlyUntilTheyExist() throws Exception {
+		byte[] original = ("original " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+		String hash = blobStore.put(original);
+
+		mockMvc.perform(get("/api/images/" + hash))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE));
+
+		MvcResult fallback = mockMvc.perform(get("/api/images/" + hash).param("size", "thumb"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+				.andReturn();
+		String fallbackEtag = fallback.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(fallbackEtag).isNotIn("\"" + hash + "\"", "\"" + hash + "-thumb\"");
+		assertThat(fallback.getResponse().getContentAsByteArray()).isEqualTo(original);
+
+		// Revalidating the fallback is answered with 304 until the rendition is there
+		mockMvc.perform(get("/api/images/" + hash).param("size", "thumb").header(HttpHeaders.IF_NONE_MATCH, fallbackEtag))
+				.andExpect(status().isNotModified());
+
+		byte[] thumb = "thumb".getBytes(StandardCharsets.UTF_8);
+		blobStore.putRendition(hash, ImageRendition.THUMB, thumb);
+		MvcResult rendition = mockMvc.perform(get("/api/images/" + hash).param("size", "thumb").header(HttpHeaders.IF_NONE_MATCH, fallbackEtag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "-thumb\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE))
+				.andReturn();
+		assertThat(rendition.getResponse().getContentAsByteArray()).isEqualTo(thumb);
+	}
+}
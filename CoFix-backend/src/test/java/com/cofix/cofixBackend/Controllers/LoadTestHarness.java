@@ -0,0 +1,406 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.MyUser;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.cofix.cofixBackend.Repos.UsersRepo;
+import com.cofix.cofixBackend.Services.PasswordHasher;
+import com.cofix.cofixBackend.Services.PostClusterIndex;
+import com.cofix.cofixBackend.Services.PostImageService;
+import com.cofix.cofixBackend.Services.PostSpatialIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-model load test: starts the application on a random port against an in-memory H2 database in PostgreSQL
+ * mode, seeds users and posts, then sends a fixed mix of requests at a fixed arrival rate and reports latency
+ * percentiles and throughput per endpoint.
+ * <p>
+ * Requests are sent on schedule whether or not earlier ones have finished, and latency is measured from the
+ * scheduled send time, so a stalled server shows up as latency instead of silently lowering the offered load.
+ * Needs no network or external database. Client and server share the machine, so treat the numbers as relative.
+ * <p>
+ * {@code mvn -P benchmark test -Dtest=LoadTestHarness -Dloadtest.rate=200 -Dloadtest.duration-seconds=60}
+ * <br>Other knobs: {@code loadtest.users}, {@code loadtest.posts}, {@code loadtest.warmup-seconds}.
+ * Results are also written to {@code target/loadtest-result.json}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"logging.level.com.cofix=WARN",
+		"cofix.blobs.root=target/loadtest-blobs"
+})
+@ActiveProfiles("test")
+class LoadTestHarness {
+
+	private static final int USERS = Integer.getInteger("loadtest.users", 500);
+	private static final int POSTS = Integer.getInteger("loadtest.posts", 5000);
+	private static final int RATE = Integer.getInteger("loadtest.rate", 100);
+	private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 5);
+	private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 30);
+	private static final String PASSWORD = "password";
+	private static final String BOUNDARY = "loadtest-boundary";
+
+	// Seeded posts are spread over this box, roughly Hyderabad
+	private static final double MIN_LAT = 17.2;
+	private static final double MAX_LAT = 17.6;
+	private static final double MIN_LNG = 78.2;
+	private static final double MAX_LNG = 78.7;
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	UsersRepo usersRepo;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	@Autowired
+	PasswordHasher passwordHasher;
+
+	@Autowired
+	PostImageService postImageService;
+
+	@Autowired
+	PostSpatialIndex postSpatialIndex;
+
+	@Autowired
+	PostClusterIndex postClusterIndex;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private byte[] photo;
+
+	@Test
+	void fixedRateMixedTraffic() throws Exception {
+		photo = samplePhoto();
+		seed();
+
+		List<Operation> mix = List.of(
+				new Operation("GET /api/issues/in-bounds", 35, this::mapViewport),
+				new Operation("GET /api/issues/clusters", 10, this::mapClusters),
+				new Operation("GET /api/issues/page", 10, () -> get("/api/issues/page?limit=50")),
+				new Operation("GET /api/profile/posts", 20, () -> get("/api/profile/posts?email=" + encode(randomUser()))),
+				new Operation("GET /api/auth/status", 5, () -> get("/api/auth/status?email=" + encode(randomUser()))),
+				new Operation("POST /api/login", 10, this::login),
+				new Operation("POST /api/issues/report", 5, this::reportIssue),
+				new Operation("POST /api/profile/review/add", 5, this::addReview));
+
+		run(mix, WARMUP_SECONDS, new LinkedHashMap<>());
+		Map<String, Recorder> results = new LinkedHashMap<>();
+		long elapsedNanos = run(mix, DURATION_SECONDS, results);
+
+		String report = report(results, elapsedNanos);
+		System.out.println(report);
+		Files.createDirectories(Path.of("target"));
+		Files.writeString(Path.of("target", "loadtest-result.json"), toJson(results, elapsedNanos));
+		assertThat(results.values().stream().mapToInt(Recorder::count).sum()).isPositive();
+	}
+
+	private void seed() throws IOException {
+		String hash = passwordHasher.hash(PASSWORD);
+		List<MyUser> users = new ArrayList<>(USERS);
+		for (int i = 0; i < USERS; i++) {
+			users.add(new MyUser(user(i), "Load User " + i, hash, "load" + i, "9000000000", "India", "Other", "Hyderabad", LocalDateTime.now()));
+		}
+		usersRepo.saveAll(users);
+
+		String imageRef = postImageService.storeUpload(new ByteArrayInputStream(photo));
+		Random random = new Random(7);
+		List<MyPost> batch = new ArrayList<>();
+		for (int i = 0; i < POSTS; i++) {
+			MyPost post = new MyPost();
+			post.setEmail(user(random.nextInt(USERS)));
+			post.setBenefitType(i % 4 == 0 ? BenefitTypes.GOVERNMENT_SCHEME : BenefitTypes.COMMUNITY_ISSUE);
+			post.setIssueName("Seeded issue " + i);
+			post.setSchemeName(i % 4 == 0 ? "Seeded scheme " + i : null);
+			post.setDescription("Seeded description " + i);
+			post.setCreateDate(LocalDateTime.now().minusMinutes(i));
+			post.setLocation(new Location(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+					MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG)));
+			post.setImage(imageRef);
+			post.addImage(imageRef);
+			batch.add(post);
+			if (batch.size() == 500) {
+				postsRepo.saveAll(batch);
+				batch.clear();
+			}
+		}
+		postsRepo.saveAll(batch);
+		// Seeding went around CofixService, so the in-memory indexes missed the creation events
+		postSpatialIndex.rebuild();
+		postClusterIndex.rebuild();
+	}
+
+	private long run(List<Operation> mix, int seconds, Map<String, Recorder> results) throws InterruptedException {
+		for (Operation operation : mix) {
+			results.put(operation.name, new Recorder());
+		}
+		int totalWeight = mix.stream().mapToInt(operation -> operation.weight).sum();
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+		long requests = (long) RATE * seconds;
+		AtomicInteger inFlight = new AtomicInteger();
+
+		long start = System.nanoTime();
+		for (long i = 0; i < requests; i++) {
+			long scheduled = start + i * intervalNanos;
+			long wait = scheduled - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Operation operation = pick(mix, totalWeight);
+			Recorder recorder = results.get(operation.name);
+			inFlight.incrementAndGet();
+			client.sendAsync(operation.request.get(), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						recorder.record(System.nanoTime() - scheduled, error == null && response.statusCode() < 400);
+						inFlight.decrementAndGet();
+					});
+		}
+		long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+			Thread.sleep(10);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static Operation pick(List<Operation> mix, int totalWeight) {
+		int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Operation operation : mix) {
+			ticket -= operation.weight;
+			if (ticket < 0) {
+				return operation;
+			}
+		}
+		return mix.get(mix.size() - 1);
+	}
+
+	private HttpRequest mapViewport() {
+		double[] box = randomViewport(0.05);
+		return get(String.format(Locale.ROOT, "/api/issues/in-bounds?minLat=%f&maxLat=%f&minLng=%f&maxLng=%f",
+				box[0], box[1], box[2], box[3]));
+	}
+
+	private HttpRequest mapClusters() {
+		double[] box = randomViewport(0.3);
+		return get(String.format(Locale.ROOT, "/api/issues/clusters?minLat=%f&maxLat=%f&minLng=%f&maxLng=%f&zoom=11",
+				box[0], box[1], box[2], box[3]));
+	}
+
+	private HttpRequest login() {
+		String form = "email=" + encode(randomUser()) + "&password=" + encode(PASSWORD);
+		return HttpRequest.newBuilder(uri("/api/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+	}
+
+	private HttpRequest addReview() {
+		String email = randomUser();
+		String json = "{\"name\":\"Load User\",\"email\":\"" + email + "\",\"message\":\"Works well on my street\"}";
+		return HttpRequest.newBuilder(uri("/api/profile/review/add"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private HttpRequest reportIssue() {
+		double[] box = randomViewport(0);
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("title", "Pothole");
+		fields.put("description", "Deep pothole near the bus stop");
+		fields.put("category", "roads");
+		fields.put("urgency", "high");
+		fields.put("latitude", String.valueOf(box[0]));
+		fields.put("longitude", String.valueOf(box[2]));
+		fields.put("userEmail", randomUser());
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		fields.forEach((name, value) -> write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\""
+				+ name + "\"\r\n\r\n" + value + "\r\n"));
+		write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"photo\"; filename=\"photo.jpg\"\r\n"
+				+ "Content-Type: image/jpeg\r\n\r\n");
+		body.writeBytes(photo);
+		write(body, "\r\n--" + BOUNDARY + "--\r\n");
+		return HttpRequest.newBuilder(uri("/api/issues/report"))
+				.header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+				.build();
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(uri(path)).GET().build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static double[] randomViewport(double size) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		double lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT - size);
+		double lng = MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG - size);
+		return new double[]{lat, lat + size, lng, lng + size};
+	}
+
+	private static String randomUser() {
+		return user(ThreadLocalRandom.current().nextInt(USERS));
+	}
+
+	private static String user(int i) {
+		return "load" + i + "@user.com";
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	private static void write(ByteArrayOutputStream out, String text) {
+		out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] samplePhoto() {
+		BufferedImage image = new BufferedImage(1280, 960, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, 1280, 960, Color.ORANGE));
+		graphics.fillRect(0, 0, 1280, 960);
+		graphics.dispose();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ImageIO.write(image, "jpg", out);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String report(Map<String, Recorder> results, long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+				"%nLoad test: %d req/s offered for %d s, %d users, %d posts%n%-32s %8s %7s %9s %9s %9s %9s %9s%n",
+				RATE, DURATION_SECONDS, USERS, POSTS, "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+		results.forEach((name, recorder) -> {
+			long[] sorted = recorder.sorted();
+			out.append(String.format(Locale.ROOT, "%-32s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+					name, sorted.length, recorder.errors(), sorted.length / seconds,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(percentile(sorted, 1.0))));
+		});
+		return out.toString();
+	}
+
+	private static String toJson(Map<String, Recorder> results, long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+				"{\"rate\":%d,\"durationSeconds\":%d,\"users\":%d,\"posts\":%d,\"endpoints\":{",
+				RATE, DURATION_SECONDS, USERS, POSTS));
+		String separator = "";
+		for (Map.Entry<String, Recorder> entry : results.entrySet()) {
+			long[] sorted = entry.getValue().sorted();
+			json.append(separator).append(String.format(Locale.ROOT,
+					"\"%s\":{\"count\":%d,\"errors\":%d,\"throughput\":%.2f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+					entry.getKey(), sorted.length, entry.getValue().errors(), sorted.length / seconds,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(percentile(sorted, 1.0))));
+			separator = ",";
+		}
+		return json.append("}}").toString();
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static final class Operation {
+		final String name;
+		final int weight;
+		final Supplier<HttpRequest> request;
+
+		Operation(String name, int weight, Supplier<HttpRequest> request) {
+			this.name = name;
+			this.weight = weight;
+			this.request = request;
+		}
+	}
+
+	private static final class Recorder {
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+
+		synchronized void record(long nanos, boolean success) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = nanos;
+			if (!success) {
+				errors++;
+			}
+		}
+
+		synchronized int count() {
+			return count;
+		}
+
+		synchronized int errors() {
+			return errors;
+		}
+
+		synchronized long[] sorted() {
+			long[] copy = Arrays.copyOf(latencies, count);
+			Arrays.sort(copy);
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PostExportTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 4, 12, 0);
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@BeforeEach
+	void seed() {
+		postsRepo.deleteAll();
+		List<MyPost> posts = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			MyPost post = new MyPost();
+			post.setEmail("exporter@user.com");
+			post.setBenefitType(i % 3 == 0 ? BenefitTypes.GOVERNMENT_SCHEME : BenefitTypes.COMMUNITY_ISSUE);
+			post.setIssueName("Issue " + i);
+			post.setDescription("Line one, \"quoted\"\nline two");
+			post.setCreateDate(NOW.minusDays(i));
+			post.setLocation(new Location(17.0 + i * 0.1, 78.0));
+			posts.add(post);
+		}
+		postsRepo.saveAll(posts);
+	}
+
+	@Test
+	void streamsEveryPostAsNdjson() throws Exception {
+		List<String> lines = lines(mockMvc.perform(get("/api/issues/export"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+				.andReturn().getResponse().getContentAsByteArray());
+
+		assertThat(lines).hasSize(30);
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertThat(first.get("email").asText()).isEqualTo("exporter@user.com");
+		assertThat(first.get("description").asText()).isEqualTo("Line one, \"quoted\"\nline two");
+		assertThat(first.get("latitude").isNumber()).isTrue();
+	}
+
+	@Test
+	void appliesFiltersToCsv() throws Exception {
+		String csv = mockMvc.perform(get("/api/issues/export")
+						.param("format", "csv")
+						.param("benefitType", "COMMUNITY_ISSUE")
+						.param("minLat", "17.0").param("maxLat", "18.05")
+						.param("minLng", "77.0").param("maxLng", "79.0")
+						.param("from", NOW.minusDays(20).toString()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		// Posts 0..10 are inside the box and 0..20 inside the date range; every third one is a scheme
+		List<String> records = List.of(csv.split("\r\n"));
+		assertThat(records.get(0)).startsWith("postId,email,benefitType,issueName");
+		assertThat(records).hasSize(1 + 7);
+		assertThat(records.get(1)).contains("\"Line one, \"\"quoted\"\"\nline two\"");
+	}
+
+	@Test
+	void gzipsWhenTheClientAcceptsIt() throws Exception {
+		MockHttpServletResponse response = mockMvc.perform(get("/api/issues/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn().getResponse();
+
+		byte[] body;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			body = in.readAllBytes();
+		}
+		assertThat(lines(body)).hasSize(30);
+	}
+
+	@Test
+	void rejectsUnknownFormatsAndPartialBounds() throws Exception {
+		mockMvc.perform(get("/api/issues/export").param("format", "xml")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/issues/export").param("minLat", "17.0")).andExpect(status().isBadRequest());
+	}
+
+	private static List<String> lines(byte[] body) {
+		String text = new String(body, StandardCharsets.UTF_8);
+		return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+	}
+}
@@ -0,0 +1,124 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.MyUser;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.cofix.cofixBackend.Repos.UsersRepo;
+import com.cofix.cofixBackend.Services.SessionTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk import through {@code /api/admin/import/posts}: bad rows are reported by line while the rest are inserted
+ * in JDBC batches.
+ */
+@SpringBootTest(properties = "cofix.import.batch-size=50")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PostImportTests {
+
+	private static final String EMAIL = "importer@user.com";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	@Autowired
+	UsersRepo usersRepo;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	SessionTokenService sessionTokenService;
+
+	@Value("${admin-email}")
+	String adminEmail;
+
+	private String adminAuthorization;
+
+	@BeforeEach
+	void setUp() {
+		postsRepo.deleteAll();
+		usersRepo.save(new MyUser("Importer", EMAIL, "hash"));
+		adminAuthorization = "Bearer " + sessionTokenService.issue(adminEmail);
+	}
+
+	@Test
+	void importsCsvInBatchesAndReportsBadRows() throws Exception {
+		StringBuilder csv = new StringBuilder("email,benefitType,issueName,schemeName,description,latitude,longitude\n");
+		for (int i = 0; i < 120; i++) {
+			csv.append(EMAIL).append(",COMMUNITY_ISSUE,Issue ").append(i).append(",,\"Row ").append(i).append(", imported\",17.4,78.6\n");
+		}
+		csv.append("nobody@user.com,COMMUNITY_ISSUE,Issue,,,17.4,78.6\n");
+		csv.append(EMAIL).append(",GOVERNMENT_SCHEME,,,,17.4,78.6\n");
+		csv.append(EMAIL).append(",COMMUNITY_ISSUE,Issue,,,917.4,78.6\n");
+		csv.append(EMAIL).append(",GOVERNMENT_SCHEME,,Rythu Bandhu,,,\n");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(post("/api/admin/import/posts").contentType("text/csv").content(csv.toString())
+						.header(HttpHeaders.AUTHORIZATION, adminAuthorization))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(121))
+				.andExpect(jsonPath("$.failed").value(3))
+				.andExpect(jsonPath("$.errors[0].line").value(122))
+				.andExpect(jsonPath("$.errors[0].message").value("Unknown user nobody@user.com"))
+				.andExpect(jsonPath("$.errors[1].message").value("schemeName is required"))
+				.andExpect(jsonPath("$.errors[2].line").value(124));
+
+		assertThat(postsRepo.count()).isEqualTo(121);
+		// Three insert batches and a few sequence calls rather than one statement per row
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+	}
+
+	@Test
+	void importsNdjsonWithTheRequestedDefaultType() throws Exception {
+		String ndjson = "{\"email\":\"" + EMAIL + "\",\"schemeName\":\"Rythu Bandhu\",\"createDate\":\"2024-07-04T21:46:51\"}\n"
+				+ "{\"email\":\"" + EMAIL + "\",\"createDate\":\"yesterday\",\"schemeName\":\"Aasara\"}\n";
+
+		mockMvc.perform(post("/api/admin/import/posts?benefitType=GOVERNMENT_SCHEME").contentType("application/x-ndjson").content(ndjson)
+						.header(HttpHeaders.AUTHORIZATION, adminAuthorization))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.errors[0].line").value(2));
+
+		assertThat(postsRepo.findByEmailAndBenefitType(EMAIL, BenefitTypes.GOVERNMENT_SCHEME)).hasSize(1);
+	}
+
+	@Test
+	void refusesAnyoneButTheAdmin() throws Exception {
+		String row = "{\"email\":\"" + EMAIL + "\",\"issueName\":\"Pothole\"}\n";
+		String userAuthorization = "Bearer " + sessionTokenService.issue(EMAIL);
+
+		mockMvc.perform(post("/api/admin/import/posts").contentType("application/x-ndjson").content(row))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/admin/import/posts").contentType("application/x-ndjson").content(row)
+						.header(HttpHeaders.AUTHORIZATION, userAuthorization))
+				.andExpect(status().isForbidden());
+		// The other admin jobs are guarded the same way
+		for (String path : new String[]{"/api/admin/images/migrate", "/api/admin/search/rebuild"}) {
+			mockMvc.perform(post(path)).andExpect(status().isUnauthorized());
+			mockMvc.perform(post(path).header(HttpHeaders.AUTHORIZATION, userAuthorization)).andExpect(status().isForbidden());
+		}
+
+		assertThat(postsRepo.count()).isZero();
+	}
+}
@@ -0,0 +1,127 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.cofix.cofixBackend.Services.PostVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 loading of post_images: the number of SQL statements a list endpoint runs must not
+ * depend on how many posts it returns.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PostListQueryCountTests {
+
+	private static final String EMAIL = "counter@user.com";
+	private static final List<String> ENDPOINTS = List.of(
+			"/api/issues/all",
+			"/api/issues?benefitType=COMMUNITY_ISSUE",
+			"/api/issues/page?limit=200",
+			"/api/profile/posts?email=" + EMAIL,
+			"/api/profile/issues?email=" + EMAIL,
+			"/api/profile/schemes?email=" + EMAIL,
+			"/api/profile/issues/all?email=" + EMAIL);
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	PostVersions postVersions;
+
+	@BeforeEach
+	void clearPosts() {
+		postsRepo.deleteAll();
+	}
+
+	@Test
+	void listEndpointsRunTheSameStatementsForFewAndManyPosts() throws Exception {
+		seed(4);
+		Map<String, Long> few = countStatements();
+
+		seed(40);
+		Map<String, Long> many = countStatements();
+
+		assertThat(many).isEqualTo(few);
+		assertThat(few.get("/api/issues/all")).isEqualTo(2L);
+	}
+
+	@Test
+	void unchangedListsAreAnsweredWithoutStatements() throws Exception {
+		seed(4);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		for (String endpoint : List.of("/api/issues/all", "/api/issues?benefitType=COMMUNITY_ISSUE",
+				"/api/profile/posts?email=" + EMAIL, "/api/profile/schemes?email=" + EMAIL)) {
+			String etag = mockMvc.perform(get(endpoint)).andExpect(status().isOk())
+					.andExpect(header().exists(HttpHeaders.ETAG))
+					.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+			statistics.clear();
+			mockMvc.perform(get(endpoint).header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isNotModified())
+					.andExpect(header().string(HttpHeaders.ETAG, etag));
+			assertThat(statistics.getPrepareStatementCount()).as(endpoint).isZero();
+
+			postVersions.invalidateAll();
+			mockMvc.perform(get(endpoint).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+		}
+	}
+
+	private Map<String, Long> countStatements() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			statistics.clear();
+			mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+			counts.put(endpoint, statistics.getPrepareStatementCount());
+		}
+		return counts;
+	}
+
+	private void seed(int count) {
+		List<MyPost> posts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MyPost post = new MyPost();
+			post.setEmail(EMAIL);
+			post.setBenefitType(i % 2 == 0 ? BenefitTypes.COMMUNITY_ISSUE : BenefitTypes.GOVERNMENT_SCHEME);
+			post.setIssueName("Issue " + i);
+			post.setDescription("Description " + i);
+			post.setCreateDate(LocalDateTime.now().minusMinutes(i));
+			post.setLocation(new Location(17.4 + i * 0.001, 78.6));
+			post.addImage("/api/images/" + "a".repeat(63) + (i % 10));
+			post.addImage("/api/images/" + "b".repeat(63) + (i % 10));
+			posts.add(post);
+		}
+		postsRepo.saveAll(posts);
+	}
+}
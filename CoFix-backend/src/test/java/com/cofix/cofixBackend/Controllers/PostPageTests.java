@@ -0,0 +1,117 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Models.PostCursor;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PostPageTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 4, 12, 0);
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private List<MyPost> posts;
+
+	@BeforeEach
+	void seed() {
+		postsRepo.deleteAll();
+		List<MyPost> seeded = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			MyPost post = new MyPost();
+			post.setEmail("pager@user.com");
+			post.setBenefitType(BenefitTypes.COMMUNITY_ISSUE);
+			post.setIssueName("Issue " + i);
+			// Four posts share each timestamp, so pages have to break ties on postId
+			post.setCreateDate(NOW.minusHours(i / 4));
+			post.setLocation(new Location(17.0, 78.0));
+			seeded.add(post);
+		}
+		posts = postsRepo.saveAll(seeded);
+	}
+
+	@Test
+	void continuesAcrossTiedTimestampsWithoutGapsOrRepeats() throws Exception {
+		List<Long> expected = posts.stream()
+				.sorted(Comparator.comparing(MyPost::getCreateDate).thenComparing(MyPost::getPostId).reversed())
+				.map(MyPost::getPostId)
+				.toList();
+
+		List<Long> seen = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		String cursor = null;
+		do {
+			JsonNode page = page(get("/api/issues/page").param("limit", "5").param("cursor", cursor));
+			page.get("posts").forEach(post -> seen.add(post.get("postId").asLong()));
+			sizes.add(page.get("posts").size());
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+		} while (cursor != null);
+
+		assertThat(sizes).containsExactly(5, 5, 2);
+		assertThat(seen).isEqualTo(expected);
+	}
+
+	@Test
+	void aFullLastPageHasNoNextCursor() throws Exception {
+		JsonNode first = page(get("/api/issues/page").param("limit", "6"));
+		assertThat(first.get("posts")).hasSize(6);
+		assertThat(first.get("nextCursor").isNull()).isFalse();
+
+		JsonNode last = page(get("/api/issues/page").param("limit", "6").param("cursor", first.get("nextCursor").asText()));
+		assertThat(last.get("posts")).hasSize(6);
+		assertThat(last.get("nextCursor").isNull()).isTrue();
+
+		// A cursor past the oldest post is an empty last page, not an error
+		MyPost oldest = posts.stream().min(Comparator.comparing(MyPost::getCreateDate).thenComparing(MyPost::getPostId)).orElseThrow();
+		JsonNode empty = page(get("/api/issues/page").param("cursor", new PostCursor(oldest.getCreateDate(), oldest.getPostId()).encode()));
+		assertThat(empty.get("posts")).isEmpty();
+		assertThat(empty.get("nextCursor").isNull()).isTrue();
+	}
+
+	@Test
+	void rejectsMalformedCursors() throws Exception {
+		for (String cursor : List.of("not a cursor!", encode("no separator"), encode("2024-07-04T12:00|abc"), encode("yesterday|12"))) {
+			mockMvc.perform(get("/api/issues/page").param("cursor", cursor)).andExpect(status().isBadRequest());
+		}
+	}
+
+	private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,101 @@
+package com.cofix.cofixBackend.Controllers;
+
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.Location;
+import com.cofix.cofixBackend.Models.MyPost;
+import com.cofix.cofixBackend.Repos.PostsRepo;
+import com.cofix.cofixBackend.Services.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admin routes need the admin's session even though {@code cofix.auth.token.enforce} is off. Other requests stay
+ * open without a token, but a session that is sent can only act for its own user.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SessionAccessTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	SessionTokenService sessionTokenService;
+
+	@Autowired
+	PostsRepo postsRepo;
+
+	@Value("${admin-email}")
+	String adminEmail;
+
+	@Test
+	void requestsWithoutATokenStayOpenUntilEnforced() throws Exception {
+		mockMvc.perform(get("/api/issues/all")).andExpect(status().isOk());
+		mockMvc.perform(report("someone@user.com")).andExpect(status().isCreated());
+		mockMvc.perform(post("/api/logout")).andExpect(status().isOk());
+	}
+
+	@Test
+	void sessionsOnlyActForTheirOwnUser() throws Exception {
+		MyPost post = new MyPost();
+		post.setEmail("owner@user.com");
+		post.setBenefitType(BenefitTypes.COMMUNITY_ISSUE);
+		post.setIssueName("Broken bench");
+		post.setCreateDate(LocalDateTime.now());
+		post.setLocation(new Location(-12.5, -77.5));
+		Long postId = postsRepo.save(post).getPostId();
+
+		mockMvc.perform(delete("/api/profile/issues/" + postId).header(HttpHeaders.AUTHORIZATION, bearer("someone@user.com")))
+				.andExpect(status().isForbidden());
+		assertThat(postsRepo.findSummariesByPostId(postId)).hasSize(1);
+		mockMvc.perform(report("owner@user.com").header(HttpHeaders.AUTHORIZATION, bearer("someone@user.com")))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/profile/issues/add").header(HttpHeaders.AUTHORIZATION, bearer("someone@user.com"))
+						.contentType("application/json").content("{\"email\":\"owner@user.com\"}"))
+				.andExpect(status().isForbidden());
+
+		mockMvc.perform(delete("/api/profile/issues/" + postId).header(HttpHeaders.AUTHORIZATION, bearer("Owner@user.com")))
+				.andExpect(status().isNoContent());
+		assertThat(postsRepo.findSummariesByPostId(postId)).isEmpty();
+	}
+
+	@Test
+	void adminRoutesOnlyAcceptTheAdminSession() throws Exception {
+		mockMvc.perform(get("/api/admin/search")).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/admin/search").header(HttpHeaders.AUTHORIZATION, bearer("someone@user.com")))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/api/admin/search").header(HttpHeaders.AUTHORIZATION, bearer(adminEmail.toUpperCase())))
+				.andExpect(status().isOk());
+	}
+
+	private static MockHttpServletRequestBuilder report(String email) {
+		return post("/api/issues/report")
+				.param("title", "Fallen tree blocking the lane")
+				.param("description", "Branches across both sides of the road")
+				.param("category", "COMMUNITY_ISSUE")
+				.param("urgency", "high")
+				.param("latitude", "-12.6")
+				.param("longitude", "-77.6")
+				.param("userEmail", email);
+	}
+
+	private String bearer(String email) {
+		return "Bearer " + sessionTokenService.issue(email);
+	}
+}
@@ -0,0 +1,68 @@
+package com.cofix.cofixBackend.Services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlobStoreTests {
+
+	@TempDir
+	Path root;
+
+	private BlobStore blobStore;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		blobStore = new BlobStore();
+		blobStore.root = root.toString();
+		blobStore.init();
+	}
+
+	@Test
+	void storesContentUnderItsHashInShardDirectories() throws IOException, NoSuchAlgorithmException {
+		// Larger than the copy buffer, so the hash covers several reads
+		byte[] data = new byte[200_000];
+		new Random(1).nextBytes(data);
+		String hash = blobStore.put(new ByteArrayInputStream(data));
+
+		assertThat(hash).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)));
+		Path path = blobStore.find(hash).orElseThrow();
+		assertThat(root.relativize(path).toString()).isEqualTo(Path.of(hash.substring(0, 2), hash.substring(2, 4), hash).toString());
+		assertThat(Files.readAllBytes(path)).isEqualTo(data);
+	}
+
+	@Test
+	void stopsStagingOnceTheLimitIsPassed() throws IOException {
+		byte[] data = new byte[100_000];
+		assertThatThrownBy(() -> blobStore.stage(new ByteArrayInputStream(data), data.length - 1))
+				.isInstanceOf(UploadRejectedException.class);
+		try (var parts = Files.list(root.resolve("tmp"))) {
+			assertThat(parts).isEmpty();
+		}
+
+		try (BlobStore.Staged staged = blobStore.stage(new ByteArrayInputStream(data), data.length)) {
+			assertThat(Files.size(staged.getPath())).isEqualTo(data.length);
+		}
+	}
+
+	@Test
+	void probesImageTypesFromTheFirstBytes() {
+		assertThat(BlobStore.probeContentType(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}, 4)).isEqualTo("image/jpeg");
+		assertThat(BlobStore.probeContentType("GIF89a".getBytes(), 6)).isEqualTo("image/gif");
+		assertThat(BlobStore.probeContentType("RIFF\0\0\0\0WEBP".getBytes(), 12)).isEqualTo("image/webp");
+		assertThat(BlobStore.probeContentType("GIF".getBytes(), 3)).isEqualTo("application/octet-stream");
+		assertThat(BlobStore.probeContentType("<svg".getBytes(), 4)).isEqualTo("application/octet-stream");
+	}
+}
@@ -0,0 +1,93 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.DuplicateMatch;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateDetectorTests {
+
+	private static final double LAT = 17.3850;
+	private static final double LNG = 78.4867;
+	// About 22 m north
+	private static final double NEAR_LAT = LAT + 0.0002;
+
+	private DuplicateDetector detector;
+
+	@BeforeEach
+	void setUp() {
+		detector = new DuplicateDetector();
+		detector.enabled = true;
+		detector.radiusMeters = 50;
+		detector.windowHours = 72;
+		detector.minSimilarity = 0.5;
+		detector.minTextLength = 20;
+		detector.imageHashIndex = new ImageHashIndex();
+		detector.onIssueSaved(new IssueSavedEvent(issue(10L, "Pothole on MG Road", "Deep pothole near the bus stop", LAT, LocalDateTime.now())));
+	}
+
+	@Test
+	void flagsSimilarTextNearby() {
+		List<DuplicateMatch> matches = detector.findDuplicates(NEAR_LAT, LNG, "Pothole on M.G. road", "deep pothole near bus stop");
+		assertThat(matches).hasSize(1);
+		assertThat(matches.get(0).getSource()).isEqualTo(DuplicateDetector.REPORT);
+		assertThat(matches.get(0).getId()).isEqualTo(10L);
+		assertThat(matches.get(0).getDistanceMeters()).isBetween(15.0, 30.0);
+		assertThat(detector.getStats()).containsEntry("flagged", 1L);
+	}
+
+	@Test
+	void ignoresDifferentTextOrFarAwayOrOldIssues() {
+		assertThat(detector.findDuplicates(NEAR_LAT, LNG, "Streetlight not working", "Lamp post dark since Monday")).isEmpty();
+		assertThat(detector.findDuplicates(LAT + 0.001, LNG, "Pothole on MG Road", "Deep pothole near the bus stop")).isEmpty();
+		assertThat(detector.findDuplicates(LAT, LNG, null, " ")).isEmpty();
+
+		detector.onIssueSaved(new IssueSavedEvent(issue(10L, "Pothole on MG Road", "Deep pothole near the bus stop", LAT, LocalDateTime.now().minusDays(4))));
+		assertThat(detector.findDuplicates(LAT, LNG, "Pothole on MG Road", "Deep pothole near the bus stop")).isEmpty();
+	}
+
+	@Test
+	void matchesCommunityIssuePostsUntilDeleted() {
+		PostSummary post = new PostSummary("user@x.com", 7L, BenefitTypes.COMMUNITY_ISSUE, null, "Garbage not collected for a week",
+				null, "Garbage pile", null, LAT, LNG, null, LocalDateTime.now());
+		detector.onPostCreated(new PostCreatedEvent(post));
+		assertThat(detector.findDuplicates(NEAR_LAT, LNG, "Garbage pile", "garbage not collected for weeks"))
+				.extracting(DuplicateMatch::getId).containsExactly(7L);
+
+		detector.onPostDeleted(new PostDeletedEvent(post));
+		assertThat(detector.findDuplicates(NEAR_LAT, LNG, "Garbage pile", "garbage not collected for weeks")).isEmpty();
+	}
+
+	@Test
+	void leavesShortTextsToThePhotoCheck() {
+		CommunityIssue pothole = issue(11L, "Pothole", null, LAT, LocalDateTime.now());
+		pothole.setPhotoUrl("/api/images/abc");
+		detector.onIssueSaved(new IssueSavedEvent(pothole));
+
+		assertThat(detector.findDuplicates(NEAR_LAT, LNG, "Pothole", "")).isEmpty();
+		List<DuplicateMatch> matches = detector.findDuplicates(NEAR_LAT, LNG, "Pothole", "", List.of("/api/images/abc"));
+		assertThat(matches).extracting(DuplicateMatch::getId).containsExactly(11L);
+		assertThat(matches.get(0).isSameImage()).isTrue();
+	}
+
+	@Test
+	void pruneDropsIssuesOutsideTheWindow() {
+		detector.windowHours = 0;
+		detector.prune();
+		assertThat(detector.getStats()).containsEntry("indexed", 0).containsEntry("cells", 0);
+	}
+
+	private static CommunityIssue issue(Long id, String title, String description, double latitude, LocalDateTime createdAt) {
+		return new CommunityIssue(id, title, description, "roads", "high", "pending", latitude, LNG, null, "user@x.com", createdAt);
+	}
+}
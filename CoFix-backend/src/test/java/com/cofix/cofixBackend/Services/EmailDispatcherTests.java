@@ -0,0 +1,89 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.EmailOutboxMessage;
+import com.cofix.cofixBackend.Models.OutboxStatus;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailDispatcherTests {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	EmailDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		dispatcher = new EmailDispatcher();
+		dispatcher.mailSender = mailSender(ServerSetupTest.SMTP.getPort());
+		dispatcher.fromEmail = "cofix@localhost";
+		dispatcher.maxAttempts = 3;
+		dispatcher.initialBackoffMs = 1000;
+		dispatcher.maxBackoffMs = 4000;
+	}
+
+	@Test
+	void deliversWholeBatchAndMarksSent() {
+		List<EmailOutboxMessage> batch = List.of(
+				new EmailOutboxMessage("first@user.com", "New issue", "<p>one</p>"),
+				new EmailOutboxMessage("second@user.com", "New issue", "<p>two</p>"));
+
+		dispatcher.deliver(batch);
+
+		assertThat(greenMail.getReceivedMessages()).hasSize(2);
+		assertThat(batch).allSatisfy(message -> {
+			assertThat(message.getStatus()).isEqualTo(OutboxStatus.SENT);
+			assertThat(message.getAttempts()).isEqualTo(1);
+			assertThat(message.getSentDate()).isNotNull();
+		});
+	}
+
+	@Test
+	void reschedulesWithBackoffThenGivesUp() throws IOException {
+		dispatcher.mailSender = mailSender(closedPort());
+		EmailOutboxMessage message = new EmailOutboxMessage("user@user.com", "New issue", "<p>body</p>");
+
+		dispatcher.deliver(List.of(message));
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(message.getAttempts()).isEqualTo(1);
+		assertThat(message.getNextAttemptAt()).isAfter(LocalDateTime.now());
+		assertThat(message.getLastError()).isNotBlank();
+
+		dispatcher.deliver(List.of(message));
+		dispatcher.deliver(List.of(message));
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+		assertThat(message.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	void backoffDoublesAndIsCapped() {
+		assertThat(dispatcher.backoffMillis(1)).isBetween(1000L, 1200L);
+		assertThat(dispatcher.backoffMillis(2)).isBetween(2000L, 2400L);
+		assertThat(dispatcher.backoffMillis(3)).isBetween(4000L, 4800L);
+		assertThat(dispatcher.backoffMillis(40)).isBetween(4000L, 4800L);
+	}
+
+	private static JavaMailSenderImpl mailSender(int port) {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		sender.setHost("localhost");
+		sender.setPort(port);
+		return sender;
+	}
+
+	private static int closedPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.cofix.cofixBackend.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTests {
+
+	@Test
+	void fillsSlotsInFieldOrderAndEscapesValues() {
+		EmailTemplate template = EmailTemplate.compile("<td>{{name}}</td><td>{{ id }}</td><td>{{name}}</td>", "id", "name");
+
+		assertThat(template.render(7L, "<b>Tom & \"Jerry\"</b>"))
+				.isEqualTo("<td>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;</td><td>7</td><td>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;</td>");
+		assertThat(template.render(null, "ok")).isEqualTo("<td>ok</td><td>null</td><td>ok</td>");
+	}
+
+	@Test
+	void encodesNonAsciiAsUtf8() throws IOException {
+		EmailTemplate template = EmailTemplate.compile("[{{text}}]", "text");
+		String text = "café € 😀";
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		template.renderTo(out, text);
+
+		assertThat(out.toByteArray()).isEqualTo(("[" + text + "]").getBytes(StandardCharsets.UTF_8));
+		assertThat(template.render(text)).isEqualTo("[" + text + "]");
+	}
+
+	@Test
+	void rejectsUnknownPlaceholdersAndWrongArity() {
+		assertThatThrownBy(() -> EmailTemplate.compile("{{missing}}", "name")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{name", "name")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{name}}", "name").render()).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void issueNotificationLayoutLoads() {
+		EmailTemplate template = EmailTemplate.load("mail-templates/issue-notification.html",
+				"email", "postId", "benefitType", "schemeName", "issueName", "description", "activityDescription",
+				"latitude", "longitude", "comment", "createDate");
+
+		String body = template.render("user@user.com", 1L, "COMMUNITY_ISSUE", null, "Pothole", "Deep", null, 17.4, 78.6, null, null);
+		assertThat(body).contains("<td>user@user.com</td>").contains("Latitude: 17.4, Longitude: 78.6");
+	}
+}
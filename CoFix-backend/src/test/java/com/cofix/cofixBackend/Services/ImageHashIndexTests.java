@@ -0,0 +1,175 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.ImageReferences;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ImageHashIndexTests {
+
+	@TempDir
+	Path root;
+
+	private BlobStore blobStore;
+	private ImageHashIndex index;
+	private PostImageService images;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		blobStore = new BlobStore();
+		blobStore.root = root.toString();
+		blobStore.init();
+		index = newIndex();
+		images = new PostImageService();
+		images.blobStore = blobStore;
+		images.imageHashIndex = index;
+		images.imageRenditionService = mock(ImageRenditionService.class);
+		images.meterRegistry = new SimpleMeterRegistry();
+		images.maxUploadBytes = 10 * 1024 * 1024;
+	}
+
+	@Test
+	void groupsReEncodedAndResizedCopiesWithTheStoredImage() throws IOException {
+		BufferedImage photo = scene(1, 1200, 900);
+		String original = images.storeUpload(new ByteArrayInputStream(encode(photo, "png")));
+		String originalHash = ImageReferences.hashOf(original);
+
+		// Copies are stored as they were uploaded, never swapped for the earlier blob
+		for (byte[] copy : List.of(encode(photo, "jpg"), encode(resize(photo, 400, 300), "jpg"))) {
+			String reference = images.storeUpload(new ByteArrayInputStream(copy));
+			assertThat(reference).isNotEqualTo(original);
+			assertThat(blobStore.find(ImageReferences.hashOf(reference))).isPresent();
+			assertThat(index.groupOf(ImageReferences.hashOf(reference))).isEqualTo(originalHash);
+		}
+
+		String other = images.storeUpload(new ByteArrayInputStream(encode(scene(2, 1200, 900), "jpg")));
+		assertThat(index.groupOf(ImageReferences.hashOf(other))).isEqualTo(ImageReferences.hashOf(other));
+		assertThat(index.groupOf(originalHash)).isEqualTo(originalHash);
+		assertThat(index.getStats()).containsEntry("images", 4).containsEntry("linked", 2L);
+	}
+
+	@Test
+	void leavesFlatImagesOutOfTheIndex() throws IOException {
+		String black = images.storeUpload(new ByteArrayInputStream(encode(solid(Color.BLACK), "png")));
+		String white = images.storeUpload(new ByteArrayInputStream(encode(solid(Color.WHITE), "png")));
+
+		assertThat(index.groupOf(ImageReferences.hashOf(white))).isEqualTo(ImageReferences.hashOf(white));
+		assertThat(index.groupOf(ImageReferences.hashOf(black))).isEqualTo(ImageReferences.hashOf(black));
+		assertThat(index.getStats()).containsEntry("images", 0).containsEntry("linked", 0L);
+	}
+
+	@Test
+	void storesInlineFilesThatAreNotImagesAsUsual() {
+		String first = images.toReference(dataUrl("not an image"));
+		String second = images.toReference(dataUrl("not an image either"));
+		assertThat(first).isNotEqualTo(second);
+		assertThat(blobStore.find(ImageReferences.hashOf(first))).isPresent();
+		assertThat(index.getStats()).containsEntry("images", 0);
+	}
+
+	@Test
+	void refusesUploadsThatAreNotImagesOrTooLarge() throws IOException {
+		assertThatThrownBy(() -> images.storeUpload(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))))
+				.isInstanceOf(UploadRejectedException.class)
+				.extracting("reason").isEqualTo(UploadRejectedException.Reason.UNSUPPORTED_TYPE);
+
+		byte[] photo = encode(scene(4, 800, 600), "png");
+		images.maxUploadBytes = photo.length - 1;
+		assertThatThrownBy(() -> images.storeUpload(new ByteArrayInputStream(photo)))
+				.isInstanceOf(UploadRejectedException.class)
+				.extracting("reason").isEqualTo(UploadRejectedException.Reason.TOO_LARGE);
+
+		images.maxUploadBytes = photo.length;
+		assertThat(images.isStored(images.storeUpload(new ByteArrayInputStream(photo)))).isTrue();
+	}
+
+	@Test
+	void reloadsHashesKeptNextToTheBlobs() throws IOException {
+		BufferedImage photo = scene(3, 800, 600);
+		String original = images.storeUpload(new ByteArrayInputStream(encode(photo, "png")));
+
+		ImageHashIndex reloaded = newIndex();
+		reloaded.rebuild();
+		assertThat(reloaded.getStats()).containsEntry("images", 1);
+		// A copy uploaded after the restart still joins the original's group
+		images.imageHashIndex = reloaded;
+		String resized = images.storeUpload(new ByteArrayInputStream(encode(resize(photo, 400, 300), "jpg")));
+		assertThat(reloaded.groupOf(ImageReferences.hashOf(resized))).isEqualTo(ImageReferences.hashOf(original));
+
+		// and the group it joined is reloaded with it
+		reloaded = newIndex();
+		reloaded.rebuild();
+		assertThat(reloaded.groupOf(ImageReferences.hashOf(resized))).isEqualTo(ImageReferences.hashOf(original));
+	}
+
+	private ImageHashIndex newIndex() {
+		ImageHashIndex hashIndex = new ImageHashIndex();
+		hashIndex.blobStore = blobStore;
+		hashIndex.enabled = true;
+		hashIndex.maxDistance = 4;
+		hashIndex.init();
+		return hashIndex;
+	}
+
+	private static BufferedImage scene(long seed, int width, int height) {
+		Random random = new Random(seed);
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)), width, height, new Color(random.nextInt(0xFFFFFF))));
+		graphics.fillRect(0, 0, width, height);
+		for (int i = 0; i < 12; i++) {
+			graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+			graphics.fillOval(random.nextInt(width), random.nextInt(height), width / 6 + random.nextInt(width / 4), height / 6 + random.nextInt(height / 4));
+		}
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage solid(Color color) {
+		BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, 640, 480);
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage resize(BufferedImage source, int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(source, 0, 0, width, height, null);
+		graphics.dispose();
+		return image;
+	}
+
+	private static String dataUrl(String text) {
+		return "data:text/plain;base64," + Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] encode(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,90 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.ImageRendition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageRenditionServiceTests {
+
+	@TempDir
+	Path root;
+
+	private BlobStore blobStore;
+	private ImageRenditionService service;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		blobStore = new BlobStore();
+		blobStore.root = root.toString();
+		blobStore.init();
+		service = new ImageRenditionService();
+		service.blobStore = blobStore;
+		service.jpegQuality = 0.8f;
+		service.maxPixels = 40_000_000;
+	}
+
+	@Test
+	void generatesEveryRenditionWithinItsBounds() throws IOException {
+		String hash = blobStore.put(png(2000, 1000));
+
+		service.generate(hash);
+
+		for (ImageRendition rendition : ImageRendition.values()) {
+			BufferedImage image = ImageIO.read(blobStore.findRendition(hash, rendition).orElseThrow().toFile());
+			assertThat(image.getWidth()).isEqualTo(rendition.getMaxSize());
+			assertThat(image.getHeight()).isEqualTo(rendition.getMaxSize() / 2);
+		}
+	}
+
+	@Test
+	void skipsImagesOverThePixelLimitWithoutDecodingThem() throws IOException {
+		// A 1x1 image whose header claims 100000x100000 pixels, which would need 40 GB of heap to decode
+		byte[] bomb = png(1, 1);
+		ByteBuffer header = ByteBuffer.wrap(bomb);
+		header.putInt(16, 100_000).putInt(20, 100_000);
+		CRC32 crc = new CRC32();
+		crc.update(bomb, 12, 17);
+		header.putInt(29, (int) crc.getValue());
+		String bombHash = blobStore.put(bomb);
+		service.generate(bombHash);
+
+		service.maxPixels = 1_000_000;
+		String largeHash = blobStore.put(png(1001, 1000));
+		service.generate(largeHash);
+
+		for (ImageRendition rendition : ImageRendition.values()) {
+			assertThat(blobStore.findRendition(bombHash, rendition)).isEmpty();
+			assertThat(blobStore.findRendition(largeHash, rendition)).isEmpty();
+		}
+	}
+
+	@Test
+	void leavesBlobsThatAreNotImagesAlone() throws IOException {
+		String hash = blobStore.put(new ByteArrayInputStream("not an image".getBytes()));
+
+		service.generate(hash);
+
+		try (var files = Files.list(blobStore.pathFor(hash).getParent())) {
+			assertThat(files).hasSize(1);
+		}
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+		return out.toByteArray();
+	}
+}
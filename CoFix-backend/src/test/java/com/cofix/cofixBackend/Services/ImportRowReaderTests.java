@@ -0,0 +1,57 @@
+package com.cofix.cofixBackend.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportRowReaderTests {
+
+	@Test
+	void readsQuotedCsvFieldsAndKeepsStartLines() throws IOException {
+		ImportRowReader reader = ImportRowReader.csv(new BufferedReader(new StringReader(
+				"\uFEFFEmail,IssueName,description\r\n"
+						+ "a@x.com,Pothole,\"deep, wide\"\r\n"
+						+ "\r\n"
+						+ "b@x.com,\"Say \"\"hi\"\"\",\"two\nlines\"\n"
+						+ "c@x.com,Streetlight,ok\n")));
+
+		ImportRowReader.Row first = reader.next();
+		assertThat(first.getLine()).isEqualTo(2);
+		assertThat(first.get("email")).isEqualTo("a@x.com");
+		assertThat(first.get("issueName")).isEqualTo("Pothole");
+		assertThat(first.get("description")).isEqualTo("deep, wide");
+
+		ImportRowReader.Row second = reader.next();
+		assertThat(second.getLine()).isEqualTo(4);
+		assertThat(second.get("issueName")).isEqualTo("Say \"hi\"");
+		assertThat(second.get("description")).isEqualTo("two\nlines");
+
+		assertThat(reader.next().getLine()).isEqualTo(6);
+		assertThat(reader.next()).isNull();
+	}
+
+	@Test
+	void reportsBadRowsAndCarriesOn() throws IOException {
+		ImportRowReader csv = ImportRowReader.csv(new BufferedReader(new StringReader(
+				"email,issueName\nonly-one-field\na@x.com,Pothole\n")));
+		assertThat(csv.next().getError()).isEqualTo("Expected 2 fields but found 1");
+		assertThat(csv.next().get("issueName")).isEqualTo("Pothole");
+
+		ImportRowReader ndjson = ImportRowReader.ndjson(new BufferedReader(new StringReader(
+				"{\"email\":\"a@x.com\",\"latitude\":17.4}\n{not json\n[1]\n{\"email\":\"b@x.com\",\"comment\":null}\n")),
+				new ObjectMapper());
+		ImportRowReader.Row first = ndjson.next();
+		assertThat(first.get("latitude")).isEqualTo("17.4");
+		assertThat(ndjson.next().getError()).startsWith("Invalid JSON");
+		assertThat(ndjson.next().getError()).isEqualTo("Expected a JSON object");
+		ImportRowReader.Row last = ndjson.next();
+		assertThat(last.getLine()).isEqualTo(4);
+		assertThat(last.get("comment")).isNull();
+		assertThat(ndjson.next()).isNull();
+	}
+}
@@ -0,0 +1,77 @@
+package com.cofix.cofixBackend.Services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures password verifications per second through {@link PasswordHasher} at the configured strength.
+ * Excluded from the normal build; run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class LoginThroughputBenchmark {
+
+	private static final int STRENGTH = Integer.getInteger("bcrypt.strength", 10);
+	private static final long WARMUP_MILLIS = 2_000;
+	private static final long MEASURE_MILLIS = 10_000;
+
+	@Test
+	void loginsPerSecondPerCore() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		PasswordHasher hasher = PasswordHasherTests.hasher(STRENGTH, 0, 0);
+		try {
+			String hash = hasher.hash("password");
+			AtomicLong verified = new AtomicLong();
+			AtomicLong rejected = new AtomicLong();
+
+			run(hasher, hash, cores * 8, WARMUP_MILLIS, new AtomicLong(), new AtomicLong());
+			long elapsedNanos = run(hasher, hash, cores * 8, MEASURE_MILLIS, verified, rejected);
+
+			double perSecond = verified.get() / (elapsedNanos / 1e9);
+			System.out.printf("BCrypt strength %d on %d cores: %.1f logins/s, %.1f logins/s/core, %d rejected%n",
+					STRENGTH, cores, perSecond, perSecond / cores, rejected.get());
+			assertThat(verified.get()).isPositive();
+		} finally {
+			hasher.stop();
+		}
+	}
+
+	// Closed loop: each client waits for its verification before sending the next, backing off briefly when shed
+	private static long run(PasswordHasher hasher, String hash, int clients, long millis, AtomicLong verified, AtomicLong rejected) throws Exception {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(millis);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			Thread client = new Thread(() -> {
+				while (System.nanoTime() < deadline) {
+					try {
+						CompletableFuture<Boolean> result = hasher.submit(() -> hasher.matches("password", hash));
+						if (result.join()) {
+							verified.incrementAndGet();
+						}
+					} catch (PasswordHasherBusyException e) {
+						rejected.incrementAndGet();
+						try {
+							Thread.sleep(1);
+						} catch (InterruptedException interrupted) {
+							return;
+						}
+					}
+				}
+			});
+			client.start();
+			threads.add(client);
+		}
+		for (Thread client : threads) {
+			client.join();
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,113 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.NearbyIssue;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class NearbyIndexTests {
+
+	private static final double LAT = 17.3850;
+	private static final double LNG = 78.4867;
+
+	private NearbyIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new NearbyIndex();
+		index.closedStatuses = Set.of("resolved", "closed");
+	}
+
+	@Test
+	void findsTheSameNeighboursAsAFullScanThroughInsertsAndDeletes() {
+		Random random = new Random(1);
+		Map<Long, double[]> locations = new HashMap<>();
+		for (long id = 1; id <= 3000; id++) {
+			// Mostly one city, some anywhere on the globe
+			double lat = id % 10 == 0 ? Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)) : LAT + random.nextGaussian() * 0.05;
+			double lng = id % 10 == 0 ? random.nextDouble() * 360 - 180 : LNG + random.nextGaussian() * 0.05;
+			locations.put(id, new double[] {lat, lng});
+			index.onIssueSaved(new IssueSavedEvent(issue(id, "pending", lat, lng)));
+		}
+		for (long id = 1; id <= 3000; id += 3) {
+			locations.remove(id);
+			index.onIssueSaved(new IssueSavedEvent(issue(id, "Resolved", LAT, LNG)));
+		}
+
+		for (int query = 0; query < 50; query++) {
+			double lat = query % 2 == 0 ? LAT + random.nextGaussian() * 0.05 : random.nextDouble() * 180 - 90;
+			double lng = query % 2 == 0 ? LNG + random.nextGaussian() * 0.05 : random.nextDouble() * 360 - 180;
+			Double radius = query % 3 == 0 ? 3000.0 : null;
+			List<Long> expected = locations.entrySet().stream()
+					.filter(entry -> radius == null || DuplicateDetector.distanceMeters(lat, lng, entry.getValue()[0], entry.getValue()[1]) <= radius)
+					.sorted(Comparator.comparingDouble(entry -> DuplicateDetector.distanceMeters(lat, lng, entry.getValue()[0], entry.getValue()[1])))
+					.limit(25)
+					.map(Map.Entry::getKey)
+					.toList();
+			List<NearbyIssue> nearest = index.findNearest(lat, lng, 25, radius);
+			assertThat(nearest).extracting(NearbyIssue::getId).containsExactlyElementsOf(expected);
+			for (NearbyIssue issue : nearest) {
+				double[] location = locations.get(issue.getId());
+				assertThat(issue.getDistanceMeters()).isCloseTo(DuplicateDetector.distanceMeters(lat, lng, location[0], location[1]), within(0.01));
+			}
+		}
+		assertThat(index.getStats()).containsEntry("indexed", 2000);
+	}
+
+	@Test
+	void searchesAcrossTheAntimeridian() {
+		index.onIssueSaved(new IssueSavedEvent(issue(1L, null, 0, 179.999)));
+		index.onIssueSaved(new IssueSavedEvent(issue(2L, null, 0, 170)));
+
+		List<NearbyIssue> nearest = index.findNearest(0, -179.999, 1, null);
+		assertThat(nearest).extracting(NearbyIssue::getId).containsExactly(1L);
+		assertThat(nearest.get(0).getDistanceMeters()).isBetween(200.0, 250.0);
+	}
+
+	@Test
+	void includesCommunityIssuePostsUntilDeleted() {
+		PostSummary post = new PostSummary("user@x.com", 7L, BenefitTypes.COMMUNITY_ISSUE, null, "Garbage not collected",
+				null, "Garbage pile", null, LAT, LNG, null, LocalDateTime.now());
+		PostSummary scheme = new PostSummary("user@x.com", 8L, BenefitTypes.GOVERNMENT_SCHEME, "Rythu Bandhu", "Support for farmers",
+				null, null, null, LAT, LNG, null, LocalDateTime.now());
+		index.onPostCreated(new PostCreatedEvent(post));
+		index.onPostCreated(new PostCreatedEvent(scheme));
+		index.onIssueSaved(new IssueSavedEvent(issue(10L, "pending", LAT + 0.01, LNG)));
+
+		List<NearbyIssue> nearest = index.findNearest(LAT, LNG, 10, 5000.0);
+		assertThat(nearest).extracting(NearbyIssue::getSource).containsExactly(DuplicateDetector.POST, DuplicateDetector.REPORT);
+		assertThat(nearest.get(0).getTitle()).isEqualTo("Garbage pile");
+		assertThat(index.findNearest(LAT, LNG, 10, 500.0)).hasSize(1);
+
+		index.onPostDeleted(new PostDeletedEvent(post));
+		assertThat(index.findNearest(LAT, LNG, 10, null)).extracting(NearbyIssue::getId).containsExactly(10L);
+	}
+
+	private static CommunityIssue issue(Long id, String status, double lat, double lng) {
+		CommunityIssue issue = new CommunityIssue();
+		issue.setId(id);
+		issue.setTitle("Issue " + id);
+		issue.setCategory("roads");
+		issue.setStatus(status);
+		issue.setLatitude(lat);
+		issue.setLongitude(lng);
+		issue.setCreatedAt(LocalDateTime.now());
+		return issue;
+	}
+}
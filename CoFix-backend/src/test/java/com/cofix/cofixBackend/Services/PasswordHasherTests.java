@@ -0,0 +1,77 @@
+package com.cofix.cofixBackend.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTests {
+
+	private PasswordHasher hasher;
+
+	@AfterEach
+	void tearDown() {
+		hasher.stop();
+	}
+
+	@Test
+	void verifiesAndFlagsHashesWithAnotherCost() {
+		hasher = hasher(4, 1, 1);
+		PasswordHasher stronger = hasher(5, 1, 1);
+		try {
+			String hash = hasher.hash("secret");
+
+			assertThat(PasswordHasher.costOf(hash)).isEqualTo(4);
+			assertThat(hasher.matches("secret", hash)).isTrue();
+			assertThat(hasher.matches("wrong", hash)).isFalse();
+			assertThat(hasher.needsRehash(hash)).isFalse();
+			assertThat(stronger.needsRehash(hash)).isTrue();
+			assertThat(PasswordHasher.costOf("plain")).isNull();
+		} finally {
+			stronger.stop();
+		}
+	}
+
+	@Test
+	void rejectsWorkOnceWorkersAndQueueAreFull() throws Exception {
+		hasher = hasher(4, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+
+		CompletableFuture<Boolean> busy = hasher.submit(() -> {
+			running.countDown();
+			await(release);
+			return true;
+		});
+		running.await();
+		CompletableFuture<Boolean> queued = hasher.submit(() -> true);
+
+		assertThatThrownBy(() -> hasher.submit(() -> true)).isInstanceOf(PasswordHasherBusyException.class);
+		assertThat(hasher.getStats()).containsEntry("rejected", 1L);
+
+		release.countDown();
+		assertThat(busy.get()).isTrue();
+		assertThat(queued.get()).isTrue();
+	}
+
+	static PasswordHasher hasher(int strength, int workers, int queueCapacity) {
+		PasswordHasher hasher = new PasswordHasher();
+		hasher.strength = strength;
+		hasher.workers = workers;
+		hasher.queueCapacity = queueCapacity;
+		hasher.start();
+		return hasher;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
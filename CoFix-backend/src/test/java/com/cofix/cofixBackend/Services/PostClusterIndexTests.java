@@ -0,0 +1,87 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.MarkerCluster;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PostClusterIndexTests {
+
+	private PostClusterIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostClusterIndex();
+	}
+
+	@Test
+	void mergesNearbyPostsAtLowZoomAndSplitsThemAtHighZoom() {
+		// About 200 m apart: one cell at zoom 10 (0.09 degrees), separate cells at zoom 16
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 17.3810, 78.4810);
+		add(2L, BenefitTypes.GOVERNMENT_SCHEME, 17.3830, 78.4830);
+
+		List<MarkerCluster> merged = index.findClusters(17.0, 17.5, 78.0, 78.5, 10);
+		assertThat(merged).hasSize(1);
+		assertThat(merged.get(0).getCount()).isEqualTo(2);
+		assertThat(merged.get(0).getLat()).isCloseTo(17.3820, within(1e-9));
+		assertThat(merged.get(0).getLng()).isCloseTo(78.4820, within(1e-9));
+		assertThat(merged.get(0).getByBenefitType())
+				.isEqualTo(Map.of(BenefitTypes.COMMUNITY_ISSUE, 1, BenefitTypes.GOVERNMENT_SCHEME, 1));
+
+		assertThat(index.findClusters(17.37, 17.39, 78.47, 78.49, 16)).hasSize(2);
+	}
+
+	@Test
+	void followsMovesAndDeletes() {
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 17.38, 78.48);
+		add(2L, BenefitTypes.COMMUNITY_ISSUE, 17.38, 78.48);
+
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, -33.86, 151.21);
+		assertThat(index.findClusters(17.0, 18.0, 78.0, 79.0, 8)).extracting(MarkerCluster::getCount).containsExactly(1);
+		assertThat(index.findClusters(-34.0, -33.0, 151.0, 152.0, 8)).extracting(MarkerCluster::getCount).containsExactly(1);
+
+		index.onPostDeleted(new PostDeletedEvent(post(2L, BenefitTypes.COMMUNITY_ISSUE, 0, 0)));
+		assertThat(index.findClusters(17.0, 18.0, 78.0, 79.0, 8)).isEmpty();
+		for (int zoom = 0; zoom <= PostClusterIndex.MAX_ZOOM; zoom++) {
+			assertThat(index.findClusters(-90, 90, -180, 180, zoom)).extracting(MarkerCluster::getCount).containsExactly(1);
+		}
+	}
+
+	@Test
+	void boundsLargeViewportsAtHighZoom() {
+		Random random = new Random(1);
+		for (long id = 1; id <= 20_000; id++) {
+			add(id, BenefitTypes.COMMUNITY_ISSUE, random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+		}
+
+		List<MarkerCluster> world = index.findClusters(-85, 85, -180, 180, 18);
+		assertThat(world.size()).isLessThanOrEqualTo((PostClusterIndex.MAX_CELLS_ACROSS + 1) * (PostClusterIndex.MAX_CELLS_ACROSS + 2));
+		assertThat(world.stream().mapToInt(MarkerCluster::getCount).sum()).isEqualTo(20_000);
+
+		// Across the antimeridian the span is 20 degrees, not 340
+		List<MarkerCluster> pacific = index.findClusters(-10, 10, 170, -170, 18);
+		assertThat(pacific.size()).isLessThanOrEqualTo((PostClusterIndex.MAX_CELLS_ACROSS + 1) * (PostClusterIndex.MAX_CELLS_ACROSS + 2));
+		assertThat(pacific).allSatisfy(cluster -> assertThat(Math.abs(cluster.getLng())).isGreaterThanOrEqualTo(169.0));
+		assertThat(pacific.size()).isGreaterThan(100);
+	}
+
+	private void add(Long postId, BenefitTypes benefitType, double lat, double lng) {
+		index.onPostCreated(new PostCreatedEvent(post(postId, benefitType, lat, lng)));
+	}
+
+	private static PostSummary post(Long postId, BenefitTypes benefitType, double lat, double lng) {
+		return new PostSummary("user@x.com", postId, benefitType, null, null, null, "Issue " + postId, null, lat, lng, null,
+				LocalDateTime.now());
+	}
+}
@@ -0,0 +1,227 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostFeedServiceTests {
+
+	private PostFeedService feed;
+
+	@BeforeEach
+	void setUp() {
+		feed = new PostFeedService();
+		feed.bufferSize = 4;
+		feed.maxSubscribers = 2;
+		feed.workers = 2;
+		feed.timeoutMs = 60_000;
+		feed.sendTimeoutMs = 60_000;
+		feed.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		feed.stop();
+	}
+
+	@Test
+	void deliversOnlyMatchingEvents() throws Exception {
+		RecordingEmitter viewport = new RecordingEmitter();
+		RecordingEmitter mine = new RecordingEmitter();
+		assertThat(feed.register(viewport, new PostFilter(null, 17.0, 18.0, 78.0, 79.0, null, null), null)).isTrue();
+		assertThat(feed.register(mine, new PostFilter(), "b@x.com")).isTrue();
+		assertThat(feed.register(new RecordingEmitter(), new PostFilter(), null)).isFalse();
+
+		feed.onPostCreated(new PostCreatedEvent(post("a@x.com", 1L, 17.4)));
+		feed.onPostCreated(new PostCreatedEvent(post("b@x.com", 2L, 12.0)));
+		feed.onPostDeleted(new PostDeletedEvent(post("a@x.com", 1L, 17.4)));
+
+		assertThat(viewport.next()).contains("keepalive");
+		assertThat(viewport.next()).contains("event:post-created").contains("postId=1");
+		assertThat(viewport.next()).contains("event:post-deleted").contains("postId=1");
+		assertThat(mine.next()).contains("keepalive");
+		assertThat(mine.next()).contains("event:post-created").contains("postId=2");
+		assertThat(viewport.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(mine.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void slowSubscriberGetsResyncInsteadOfBacklog() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.send(builder);
+			}
+		};
+		feed.register(slow, new PostFilter(), null);
+		for (long id = 1; id <= 10; id++) {
+			feed.onPostCreated(new PostCreatedEvent(post("a@x.com", id, 17.4)));
+		}
+		release.countDown();
+
+		List<String> received = new ArrayList<>();
+		String event;
+		while ((event = slow.events.poll(500, TimeUnit.MILLISECONDS)) != null) {
+			received.add(event);
+		}
+		assertThat(received).anyMatch(text -> text.contains("event:resync"));
+		assertThat(received).anyMatch(text -> text.contains("postId=10"));
+		assertThat(received.size()).isLessThanOrEqualTo(1 + 4);
+		assertThat(feed.getStats().get("overflows")).isNotEqualTo(0L);
+	}
+
+	@Test
+	void dropsSubscribersThatCannotBeWritten() throws Exception {
+		feed.register(new RecordingEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+		}, new PostFilter(), null);
+
+		for (int i = 0; i < 50 && !Integer.valueOf(0).equals(feed.getStats().get("subscribers")); i++) {
+			Thread.sleep(10);
+		}
+		assertThat(feed.getStats()).containsEntry("subscribers", 0);
+	}
+
+	@Test
+	void stalledSubscriberIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+		feed.stop();
+		feed = new PostFeedService();
+		feed.bufferSize = 4;
+		feed.maxSubscribers = 2;
+		feed.workers = 1;
+		feed.timeoutMs = 60_000;
+		feed.sendTimeoutMs = 100;
+		feed.start();
+
+		// Blocks like a write to a client that stopped reading, taking the only worker and the emitter's lock with it
+		CountDownLatch unblock = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch completed = new CountDownLatch(1);
+		feed.register(connectedEmitter(blocked, unblock, completed), new PostFilter(), null);
+		assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+		RecordingEmitter healthy = new RecordingEmitter();
+		feed.register(healthy, new PostFilter(), null);
+		feed.onPostCreated(new PostCreatedEvent(post("a@x.com", 1L, 17.4)));
+		assertThat(healthy.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+		Thread.sleep(150);
+		// Runs on the scheduler thread, so it must not wait for the blocked write
+		CompletableFuture.runAsync(feed::dropStalledSubscribers).get(1, TimeUnit.SECONDS);
+
+		assertThat(healthy.next()).contains("keepalive");
+		assertThat(healthy.next()).contains("postId=1");
+		assertThat(feed.getStats()).containsEntry("subscribers", 1).containsEntry("stalls", 1L).containsEntry("workers", 2);
+
+		// Once the blocked write returns its worker completes the emitter and the pool shrinks back
+		assertThat(completed.getCount()).isEqualTo(1);
+		unblock.countDown();
+		assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 50 && !Integer.valueOf(1).equals(feed.getStats().get("workers")); i++) {
+			Thread.sleep(10);
+		}
+		assertThat(feed.getStats()).containsEntry("workers", 1);
+	}
+
+	@Test
+	void concurrentSubscribesStayWithinTheLimit() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return feed.register(new RecordingEmitter(), new PostFilter(), null);
+				}));
+			}
+			start.countDown();
+			int accepted = 0;
+			for (Future<Boolean> result : results) {
+				accepted += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+			}
+			assertThat(accepted).isEqualTo(2);
+			assertThat(feed.getStats()).containsEntry("subscribers", 2);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * An emitter connected the way Spring MVC connects it, so sends go through ResponseBodyEmitter's synchronized
+	 * write path. Writes block until {@code unblock} is released.
+	 */
+	private static SseEmitter connectedEmitter(CountDownLatch blocked, CountDownLatch unblock, CountDownLatch completed) throws Exception {
+		SseEmitter emitter = new SseEmitter();
+		Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+		Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "send" -> {
+					blocked.countDown();
+					unblock.await(10, TimeUnit.SECONDS);
+				}
+				case "completeWithError" -> completed.countDown();
+				default -> {
+				}
+			}
+			return null;
+		});
+		Method initialize = ResponseBodyEmitter.class.getDeclaredMethod("initialize", handlerType);
+		initialize.setAccessible(true);
+		initialize.invoke(emitter, handler);
+		return emitter;
+	}
+
+	private static PostSummary post(String email, Long postId, double latitude) {
+		return new PostSummary(email, postId, BenefitTypes.COMMUNITY_ISSUE, null, "Description", null, "Pothole",
+				null, latitude, 78.5, null, LocalDateTime.now());
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+		final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			events.add(builder.build().stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()));
+		}
+
+		String next() throws InterruptedException {
+			String event = events.poll(5, TimeUnit.SECONDS);
+			assertThat(event).isNotNull();
+			return event;
+		}
+	}
+}
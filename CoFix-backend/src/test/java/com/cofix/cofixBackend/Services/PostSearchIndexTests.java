@@ -0,0 +1,93 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostFilter;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTests {
+
+	private PostSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostSearchIndex();
+		index.compactDeletedRatio = 0.5;
+		index.onPostCreated(new PostCreatedEvent(post(1L, BenefitTypes.COMMUNITY_ISSUE, "Pothole on main road", "Big hole near the school", 17.4)));
+		index.onPostCreated(new PostCreatedEvent(post(2L, BenefitTypes.COMMUNITY_ISSUE, "Streetlight broken", "The pothole nearby is also bad", 17.5)));
+		index.onPostCreated(new PostCreatedEvent(post(3L, BenefitTypes.GOVERNMENT_SCHEME, "Rythu Bandhu", "Support for farmers", 12.0)));
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		assertThat(ids(index.search("pothole", null, 10))).containsExactly(1L, 2L);
+		assertThat(ids(index.search("POTHOLE school", null, 10))).containsExactly(1L, 2L);
+		assertThat(ids(index.search("the of", null, 10))).isEmpty();
+	}
+
+	@Test
+	void matchesTheLastWordAsAPrefix() {
+		assertThat(ids(index.search("farm", null, 10))).containsExactly(3L);
+		assertThat(ids(index.search("street", null, 10))).containsExactly(2L);
+		// Only the word being typed is expanded
+		assertThat(ids(index.search("stre light", null, 10))).isEmpty();
+	}
+
+	@Test
+	void appliesBenefitTypeAndBoundsFilters() {
+		assertThat(ids(index.search("pothole", new PostFilter(null, 17.45, 18.0, 78.0, 79.0, null, null), 10))).containsExactly(2L);
+		assertThat(ids(index.search("pothole farmers", new PostFilter(BenefitTypes.GOVERNMENT_SCHEME, null, null, null, null, null, null), 10))).containsExactly(3L);
+		assertThat(index.search("pothole", null, 1)).hasSize(1);
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		index.onPostDeleted(new PostDeletedEvent(post(1L, BenefitTypes.COMMUNITY_ISSUE, null, null, 0)));
+		assertThat(ids(index.search("pothole", null, 10))).containsExactly(2L);
+
+		index.onPostCreated(new PostCreatedEvent(post(2L, BenefitTypes.COMMUNITY_ISSUE, "Streetlight fixed", "Done", 17.5)));
+		assertThat(index.search("pothole", null, 10)).isEmpty();
+		assertThat(ids(index.search("fixed", null, 10))).containsExactly(2L);
+		assertThat(index.getStats()).containsEntry("posts", 2);
+	}
+
+	@Test
+	void keepsWordsWithCombiningMarksWhole() {
+		assertThat(PostSearchIndex.tokenize("రోడ్డు గుంత, Main-Road 42")).containsExactly("రోడ్డు", "గుంత", "main", "road", "42");
+	}
+
+	@Test
+	void compactsOnceEnoughSlotsAreDeleted() {
+		for (long id = 10; id < 20; id++) {
+			index.onPostCreated(new PostCreatedEvent(post(id, BenefitTypes.COMMUNITY_ISSUE, "Garbage pile " + id, "Not collected", 17.4)));
+		}
+		for (long id = 10; id < 16; id++) {
+			index.onPostDeleted(new PostDeletedEvent(post(id, BenefitTypes.COMMUNITY_ISSUE, null, null, 0)));
+		}
+		assertThat(index.getStats()).containsEntry("deletedSlots", 6).containsEntry("compactions", 0L);
+
+		index.onPostDeleted(new PostDeletedEvent(post(16L, BenefitTypes.COMMUNITY_ISSUE, null, null, 0)));
+
+		assertThat(index.getStats()).containsEntry("posts", 6).containsEntry("deletedSlots", 0).containsEntry("compactions", 1L);
+		assertThat(ids(index.search("garbage", null, 10))).containsExactlyInAnyOrder(17L, 18L, 19L);
+		assertThat(ids(index.search("pothole", null, 10))).containsExactly(1L, 2L);
+	}
+
+	private static PostSummary post(Long postId, BenefitTypes benefitType, String name, String description, double latitude) {
+		return new PostSummary("user@x.com", postId, benefitType, benefitType == BenefitTypes.GOVERNMENT_SCHEME ? name : null,
+				description, null, benefitType == BenefitTypes.GOVERNMENT_SCHEME ? null : name, null, latitude, 78.5, null,
+				LocalDateTime.now());
+	}
+
+	private static List<Long> ids(List<PostSummary> posts) {
+		return posts.stream().map(PostSummary::getPostId).toList();
+	}
+}
@@ -0,0 +1,80 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSpatialIndexTests {
+
+	private PostSpatialIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostSpatialIndex();
+		index.cellSize = 0.05;
+	}
+
+	@Test
+	void findsPostsOnCellAndBoxBoundaries() {
+		// 17.05 and 78.1 are exact multiples of the cell size, -0.05 is the edge of the first negative cell
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 17.05, 78.1);
+		add(2L, BenefitTypes.COMMUNITY_ISSUE, 17.0499999, 78.0999999);
+		add(3L, BenefitTypes.COMMUNITY_ISSUE, -0.05, -0.05);
+		add(4L, BenefitTypes.COMMUNITY_ISSUE, 0.0, 0.0);
+
+		assertThat(ids(index.findInBounds(17.05, 17.2, 78.1, 78.2, null, 10))).containsExactly(1L);
+		assertThat(ids(index.findInBounds(17.0, 17.05, 78.0, 78.1, null, 10))).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(ids(index.findInBounds(-0.05, 0.0, -0.05, 0.0, null, 10))).containsExactlyInAnyOrder(3L, 4L);
+		assertThat(ids(index.findInBounds(-0.1, -0.0500001, -0.1, 0.0, null, 10))).isEmpty();
+	}
+
+	@Test
+	void splitsBoxesThatCrossTheAntimeridian() {
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 10.0, 179.95);
+		add(2L, BenefitTypes.COMMUNITY_ISSUE, 10.0, -179.95);
+		add(3L, BenefitTypes.COMMUNITY_ISSUE, 10.0, 180.0);
+		add(4L, BenefitTypes.COMMUNITY_ISSUE, 10.0, -180.0);
+		add(5L, BenefitTypes.COMMUNITY_ISSUE, 10.0, 0.0);
+
+		assertThat(ids(index.findInBounds(9.0, 11.0, 179.9, -179.9, null, 10))).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+		assertThat(ids(index.findInBounds(9.0, 11.0, -179.9, 179.9, null, 10))).containsExactly(5L);
+		assertThat(index.findInBounds(9.0, 11.0, 179.9, -179.9, null, 3)).hasSize(3);
+	}
+
+	@Test
+	void followsMovesDeletesAndTypeFilters() {
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 17.0, 78.0);
+		add(2L, BenefitTypes.GOVERNMENT_SCHEME, 17.0, 78.0);
+		assertThat(ids(index.findInBounds(16.9, 17.1, 77.9, 78.1, BenefitTypes.GOVERNMENT_SCHEME, 10))).containsExactly(2L);
+
+		// Saving a post again moves it to its new cell
+		add(1L, BenefitTypes.COMMUNITY_ISSUE, 12.0, 77.0);
+		assertThat(ids(index.findInBounds(16.9, 17.1, 77.9, 78.1, null, 10))).containsExactly(2L);
+		assertThat(ids(index.findInBounds(11.9, 12.1, 76.9, 77.1, null, 10))).containsExactly(1L);
+
+		index.onPostDeleted(new PostDeletedEvent(post(2L, BenefitTypes.GOVERNMENT_SCHEME, 17.0, 78.0)));
+		assertThat(index.findInBounds(16.9, 17.1, 77.9, 78.1, null, 10)).isEmpty();
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	private void add(Long postId, BenefitTypes benefitType, double lat, double lng) {
+		index.onPostCreated(new PostCreatedEvent(post(postId, benefitType, lat, lng)));
+	}
+
+	private static PostSummary post(Long postId, BenefitTypes benefitType, double lat, double lng) {
+		return new PostSummary("user@x.com", postId, benefitType, null, null, null, "Issue " + postId, null, lat, lng, null,
+				LocalDateTime.now());
+	}
+
+	private static List<Long> ids(List<PostSummary> posts) {
+		return posts.stream().map(PostSummary::getPostId).toList();
+	}
+}
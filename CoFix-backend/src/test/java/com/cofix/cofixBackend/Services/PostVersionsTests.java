@@ -0,0 +1,48 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostVersionsTests {
+
+	private final PostVersions versions = new PostVersions();
+
+	@Test
+	void changesOnlyTheTagsAPostBelongsTo() {
+		String global = versions.globalTag();
+		String mine = versions.emailTag("a@x.com");
+		String theirs = versions.emailTag("b@x.com");
+		assertThat(global).startsWith("\"").endsWith("\"");
+
+		versions.onPostCreated(new PostCreatedEvent(post("a@x.com")));
+		assertThat(versions.globalTag()).isNotEqualTo(global);
+		assertThat(versions.emailTag("a@x.com")).isNotEqualTo(mine);
+		assertThat(versions.emailTag("b@x.com")).isEqualTo(theirs);
+
+		mine = versions.emailTag("a@x.com");
+		versions.onPostDeleted(new PostDeletedEvent(post("a@x.com")));
+		assertThat(versions.emailTag("a@x.com")).isNotEqualTo(mine);
+	}
+
+	@Test
+	void invalidateAllChangesEveryTag() {
+		String global = versions.globalTag();
+		String theirs = versions.emailTag("b@x.com");
+		versions.invalidateAll();
+		assertThat(versions.globalTag()).isNotEqualTo(global);
+		assertThat(versions.emailTag("b@x.com")).isNotEqualTo(theirs);
+		assertThat(versions.emailTag(null)).isNotNull();
+	}
+
+	private static PostSummary post(String email) {
+		return new PostSummary(email, 1L, BenefitTypes.COMMUNITY_ISSUE, null, "Description", null, "Pothole",
+				null, 17.4, 78.5, null, LocalDateTime.now());
+	}
+}
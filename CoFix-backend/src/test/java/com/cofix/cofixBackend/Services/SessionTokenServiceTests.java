@@ -0,0 +1,62 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.SessionToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionTokenServiceTests {
+
+	private SessionTokenService tokens;
+
+	@BeforeEach
+	void setUp() {
+		tokens = service("0123456789abcdef0123456789abcdef", 3600);
+	}
+
+	@Test
+	void verifiesIssuedTokens() {
+		SessionToken session = tokens.verify(tokens.issue("odd|name@user.com"));
+
+		assertThat(session).isNotNull();
+		assertThat(session.getEmail()).isEqualTo("odd|name@user.com");
+		assertThat(session.getExpiresAt()).isGreaterThan(System.currentTimeMillis() / 1000);
+	}
+
+	@Test
+	void rejectsTamperedForeignAndMalformedTokens() {
+		String token = tokens.issue("a@user.com");
+		String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("admin@user.com|99999999999|1".getBytes()) + token.substring(token.indexOf('.'));
+
+		assertThat(tokens.verify(forgedPayload)).isNull();
+		assertThat(service("another secret that is long enough!", 3600).verify(token)).isNull();
+		assertThat(tokens.verify("garbage")).isNull();
+		assertThat(tokens.verify("not base64!.x")).isNull();
+		assertThat(tokens.verify(null)).isNull();
+	}
+
+	@Test
+	void rejectsExpiredAndRevokedTokens() {
+		SessionTokenService expired = service("0123456789abcdef0123456789abcdef", -1);
+		assertThat(expired.verify(expired.issue("a@user.com"))).isNull();
+
+		String token = tokens.issue("a@user.com");
+		tokens.revoke(tokens.verify(token));
+
+		assertThat(tokens.verify(token)).isNull();
+		assertThat(tokens.verify(tokens.issue("a@user.com"))).isNotNull();
+		assertThat(tokens.getStats()).containsEntry("revoked", 1);
+	}
+
+	private static SessionTokenService service(String secret, long ttlSeconds) {
+		SessionTokenService service = new SessionTokenService();
+		service.secret = secret;
+		service.ttlSeconds = ttlSeconds;
+		service.init();
+		return service;
+	}
+}
@@ -0,0 +1,89 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Events.IssueSavedEvent;
+import com.cofix.cofixBackend.Events.PostCreatedEvent;
+import com.cofix.cofixBackend.Events.PostDeletedEvent;
+import com.cofix.cofixBackend.Models.BenefitTypes;
+import com.cofix.cofixBackend.Models.CellCount;
+import com.cofix.cofixBackend.Models.CommunityIssue;
+import com.cofix.cofixBackend.Models.DailyCount;
+import com.cofix.cofixBackend.Models.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class StatsRollupsTests {
+
+	private static final LocalDateTime DAY1 = LocalDateTime.of(2024, 7, 1, 10, 0);
+	private static final LocalDateTime DAY2 = LocalDateTime.of(2024, 7, 2, 23, 59);
+
+	private StatsRollups stats;
+
+	@BeforeEach
+	void setUp() {
+		stats = new StatsRollups();
+		stats.cellSize = 0.1;
+		stats.onPostCreated(new PostCreatedEvent(post(1L, BenefitTypes.COMMUNITY_ISSUE, DAY1, 17.41)));
+		stats.onPostCreated(new PostCreatedEvent(post(2L, BenefitTypes.GOVERNMENT_SCHEME, DAY1, 17.45)));
+		stats.onPostCreated(new PostCreatedEvent(post(3L, BenefitTypes.COMMUNITY_ISSUE, DAY2, 12.0)));
+		stats.onIssueSaved(new IssueSavedEvent(issue(10L, "Roads", "high", "pending", DAY2, 17.42)));
+		stats.onIssueSaved(new IssueSavedEvent(issue(11L, null, "low", "pending", DAY2, null)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void countsTotalsByTypeAndLabel() {
+		Map<String, Object> totals = stats.getTotals();
+		assertThat(totals).containsEntry("posts", 3L).containsEntry("reports", 2L);
+		assertThat((Map<BenefitTypes, Long>) totals.get("byBenefitType"))
+				.containsEntry(BenefitTypes.COMMUNITY_ISSUE, 2L).containsEntry(BenefitTypes.GOVERNMENT_SCHEME, 1L);
+		assertThat((Map<String, Long>) totals.get("byCategory")).containsEntry("roads", 1L).containsEntry(StatsRollups.UNSPECIFIED, 1L);
+		assertThat((Map<String, Long>) totals.get("byStatus")).containsExactly(Map.entry("pending", 2L));
+	}
+
+	@Test
+	void countsPerDayAndCell() {
+		List<DailyCount> days = stats.getDaily(null, null);
+		assertThat(days).extracting(DailyCount::getDate).containsExactly(LocalDate.of(2024, 7, 1), LocalDate.of(2024, 7, 2));
+		assertThat(days).extracting(DailyCount::getPosts).containsExactly(2L, 1L);
+		assertThat(days).extracting(DailyCount::getReports).containsExactly(0L, 2L);
+		assertThat(stats.getDaily(LocalDate.of(2024, 7, 2), null)).hasSize(1);
+
+		List<CellCount> cells = stats.getCells(true, 17.0, 18.0, 78.0, 79.0);
+		assertThat(cells).hasSize(1);
+		assertThat(cells.get(0).getPosts()).isEqualTo(2L);
+		assertThat(cells.get(0).getReports()).isEqualTo(1L);
+		assertThat(cells.get(0).getMinLat()).isCloseTo(17.4, offset(1e-9));
+		assertThat(stats.getCells(false, 0, 0, 0, 0)).hasSize(2);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void takesBackWhatDeletesAndUpdatesReplace() {
+		stats.onPostDeleted(new PostDeletedEvent(post(3L, BenefitTypes.COMMUNITY_ISSUE, null, 0)));
+		stats.onIssueSaved(new IssueSavedEvent(issue(10L, "Roads", "high", "Resolved", DAY2, 17.42)));
+
+		Map<String, Object> totals = stats.getTotals();
+		assertThat(totals).containsEntry("posts", 2L).containsEntry("reports", 2L);
+		assertThat((Map<String, Long>) totals.get("byStatus")).containsEntry("pending", 1L).containsEntry("resolved", 1L);
+		assertThat(stats.getDaily(LocalDate.of(2024, 7, 2), null).get(0).getPosts()).isZero();
+		assertThat(stats.getCells(true, 11.0, 13.0, 78.0, 79.0)).isEmpty();
+	}
+
+	private static PostSummary post(Long postId, BenefitTypes benefitType, LocalDateTime createDate, double latitude) {
+		return new PostSummary("user@x.com", postId, benefitType, null, "Description", null, "Pothole", null,
+				latitude, 78.55, null, createDate);
+	}
+
+	private static CommunityIssue issue(Long id, String category, String urgency, String status, LocalDateTime createdAt, Double latitude) {
+		return new CommunityIssue(id, "Title", "Description", category, urgency, status, latitude,
+				latitude == null ? null : 78.55, null, "user@x.com", createdAt);
+	}
+}
@@ -0,0 +1,87 @@
+package com.cofix.cofixBackend.Services;
+
+import com.cofix.cofixBackend.Models.MyUser;
+import com.cofix.cofixBackend.Repos.UsersRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTests {
+
+	private UsersRepo usersRepo;
+	private UserCache cache;
+
+	@BeforeEach
+	void setUp() {
+		usersRepo = mock(UsersRepo.class);
+		when(usersRepo.save(any(MyUser.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		cache = new UserCache();
+		cache.usersRepo = usersRepo;
+		cache.maxSize = 2;
+		cache.ttlSeconds = 300;
+	}
+
+	@Test
+	void servesRepeatedLookupsFromMemory() {
+		when(usersRepo.findById("a@x.com")).thenReturn(Optional.of(new MyUser("A", "a@x.com", "hash")));
+		when(usersRepo.findById("nobody@x.com")).thenReturn(Optional.empty());
+
+		assertThat(cache.find("a@x.com")).get().extracting(MyUser::getName).isEqualTo("A");
+		assertThat(cache.find("a@x.com")).isPresent();
+		assertThat(cache.find("nobody@x.com")).isEmpty();
+		assertThat(cache.find("nobody@x.com")).isEmpty();
+
+		verify(usersRepo, times(1)).findById("a@x.com");
+		verify(usersRepo, times(1)).findById("nobody@x.com");
+		assertThat(cache.getStats()).containsEntry("hits", 2L).containsEntry("misses", 2L);
+	}
+
+	@Test
+	void returnedUsersAreCopies() {
+		when(usersRepo.findById("a@x.com")).thenReturn(Optional.of(new MyUser("A", "a@x.com", "hash")));
+
+		cache.find("a@x.com").get().setName("changed");
+
+		assertThat(cache.find("a@x.com").get().getName()).isEqualTo("A");
+	}
+
+	@Test
+	void saveWritesThroughAndReplacesCachedAbsence() {
+		when(usersRepo.findById("new@x.com")).thenReturn(Optional.empty());
+		assertThat(cache.find("new@x.com")).isEmpty();
+
+		cache.save(new MyUser("New", "new@x.com", "hash"));
+
+		assertThat(cache.find("new@x.com")).get().extracting(MyUser::getName).isEqualTo("New");
+		verify(usersRepo, times(1)).findById("new@x.com");
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedAndExpiresOldEntries() {
+		when(usersRepo.findById(any())).thenAnswer(invocation -> Optional.of(new MyUser("U", invocation.getArgument(0), "hash")));
+
+		cache.find("a@x.com");
+		cache.find("b@x.com");
+		cache.find("a@x.com");
+		cache.find("c@x.com");
+		cache.find("a@x.com");
+		cache.find("b@x.com");
+
+		verify(usersRepo, times(1)).findById("a@x.com");
+		verify(usersRepo, times(2)).findById("b@x.com");
+		assertThat(cache.getStats()).containsEntry("size", 2).containsEntry("evictions", 2L);
+
+		cache.ttlSeconds = 0;
+		cache.find("a@x.com");
+		verify(usersRepo, times(2)).findById("a@x.com");
+		assertThat(cache.getStats()).containsEntry("expirations", 1L);
+	}
+}